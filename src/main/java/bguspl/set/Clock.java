@@ -0,0 +1,41 @@
+package bguspl.set;
+
+/**
+ * The source of time of a game: what time it is and how threads wait for time to pass.
+ * The game reads and waits for time only through its clock, so a game can run on a faster clock than the real one
+ * (see VirtualClock).
+ */
+public interface Clock {
+
+    /**
+     * @return - the current time in milliseconds (like System.currentTimeMillis).
+     */
+    long currentTimeMillis();
+
+    /**
+     * @return - the current time in nanoseconds, from an arbitrary origin (like System.nanoTime).
+     */
+    long nanoTime();
+
+    /**
+     * Makes the current thread sleep (like Thread.sleep).
+     *
+     * @param millis - the time to sleep in milliseconds.
+     * @throws InterruptedException - if the thread is interrupted while sleeping.
+     */
+    void sleep(long millis) throws InterruptedException;
+
+    /**
+     * Parks the current thread until it is unparked or the time passes (like LockSupport.parkNanos).
+     *
+     * @param blocker - the object the thread is parked on.
+     * @param nanos   - the maximum time to park in nanoseconds.
+     */
+    void parkNanos(Object blocker, long nanos);
+
+    /**
+     * @param nanos - a time interval on this clock in nanoseconds.
+     * @return - the real time the interval takes in nanoseconds (e.g. for scheduling an executor task).
+     */
+    long toRealNanos(long nanos);
+}
@@ -36,6 +36,16 @@ public class Config {
      */
     public final int deckSize;
 
+    /**
+     * The maximum number of players in a game (the tokens on a slot are kept in a single long)
+     */
+    public static final int MAX_PLAYERS = Long.SIZE;
+
+    /**
+     * The maximum number of slots on the table (the tokens of a player are kept in a single long)
+     */
+    public static final int MAX_TABLE_SIZE = Long.SIZE;
+
     /**
      * The number of human players in the game.
      */
@@ -46,11 +56,46 @@ public class Config {
      */
     public final int computerPlayers;
 
+    /**
+     * The strategy of every computer player, with its parameters (e.g. "SetFinder LogNormal 1.5 0.5", see Strategies)
+     */
+    public final String[] computerStrategies;
+
     /**
      * The total number of players (human + computer) in the game
      */
     public final int players;
 
+    /**
+     * The number of games run at once in the process (all but the first run without a user interface)
+     */
+    public final int rooms;
+
+    /**
+     * Whether to run the dealers and the players on virtual threads (needs Java 21, platform threads are used otherwise)
+     */
+    public final boolean virtualThreads;
+
+    /**
+     * Whether the players are run as state machines by a pool of workers (one per core) instead of a thread each
+     */
+    public final boolean pooledPlayers;
+
+    /**
+     * The number of workers running the players when they are pooled
+     */
+    public final int playerPoolThreads;
+
+    /**
+     * The seed of the random choices of the game (dealing and computer players), null for a different game every run
+     */
+    public final Long randomSeed;
+
+    /**
+     * How many times faster than the real time the game's clock runs (1 for real time, see VirtualClock)
+     */
+    public final double clockSpeedup;
+
     /**
      * Whether to print out hints to the console or not
      */
@@ -66,6 +111,11 @@ public class Config {
      */
     public final long turnTimeoutWarningMillis;
 
+    /**
+     * The number of milliseconds between countdown display updates while the turn timeout warning is displayed
+     */
+    public final long turnTimeoutWarningRefreshMillis;
+
     /**
      * The number of milliseconds a player gets frozen for when he scores a point
      */
@@ -155,7 +205,7 @@ public class Config {
      * @param filename - the name of the configuration file.
      * @return - a properties object with the configuration file contents.
      */
-    private static Properties loadProperties(String filename, Logger logger) {
+    static Properties loadProperties(String filename, Logger logger) {
 
         Properties properties = new Properties();
 
@@ -199,13 +249,42 @@ public class Config {
         deckSize = (int) Math.pow(featureSize, featureCount);
 
         // gameplay settings
-        humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
-        computerPlayers = Integer.parseInt(properties.getProperty("ComputerPlayers", "0"));
+        int humanPlayersValue = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
+        int computerPlayersValue = Integer.parseInt(properties.getProperty("ComputerPlayers", "0"));
+        if (humanPlayersValue + computerPlayersValue > MAX_PLAYERS)
+            logger.severe("invalid number of players: " + (humanPlayersValue + computerPlayersValue) + " (at most "
+                    + MAX_PLAYERS + ")");
+        humanPlayers = Math.min(humanPlayersValue, MAX_PLAYERS);
+        computerPlayers = Math.min(computerPlayersValue, MAX_PLAYERS - humanPlayers);
         players = humanPlayers + computerPlayers;
+        String[] strategies = properties.getProperty("ComputerStrategies", "Random").split(",");
+        computerStrategies = new String[computerPlayers];
+        Arrays.setAll(computerStrategies, i -> i < strategies.length ? strategies[i].trim() : "Random");
+        int roomsValue = Integer.parseInt(properties.getProperty("Rooms", "1"));
+        if (roomsValue < 1)
+            logger.severe("invalid number of rooms: " + roomsValue);
+        rooms = Math.max(1, roomsValue);
+        virtualThreads = Boolean.parseBoolean(properties.getProperty("VirtualThreads", "False"));
+        String playerEngine = properties.getProperty("PlayerEngine", "Threads").trim();
+        if (!playerEngine.equalsIgnoreCase("Threads") && !playerEngine.equalsIgnoreCase("Pooled"))
+            logger.severe("invalid player engine: " + playerEngine);
+        pooledPlayers = playerEngine.equalsIgnoreCase("Pooled");
+        int poolThreads = Integer.parseInt(properties.getProperty("PlayerPoolThreads", "0"));
+        playerPoolThreads = poolThreads > 0 ? poolThreads : Runtime.getRuntime().availableProcessors();
+        String seed = properties.getProperty("RandomSeed", "").trim();
+        randomSeed = seed.isEmpty() ? null : Long.parseLong(seed);
+        double speedup = Double.parseDouble(properties.getProperty("ClockSpeedup", "1"));
+        if (speedup <= 0)
+            logger.severe("invalid clock speedup: " + speedup);
+        clockSpeedup = speedup <= 0 ? 1 : speedup;
 
         hints = Boolean.parseBoolean(properties.getProperty("Hints", "False"));
         turnTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutSeconds", "60")) * 1000.0);
         turnTimeoutWarningMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutWarningSeconds", "60")) * 1000.0);
+        double warningRefreshRate = Double.parseDouble(properties.getProperty("TurnTimeoutWarningRefreshRate", "30"));
+        if (warningRefreshRate <= 0)
+            logger.severe("invalid turn timeout warning refresh rate: " + warningRefreshRate);
+        turnTimeoutWarningRefreshMillis = warningRefreshRate <= 0 ? 1000 : Math.max(1, (long) (1000.0 / warningRefreshRate));
         pointFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PointFreezeSeconds", "1")) * 1000.0);
         penaltyFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PenaltyFreezeSeconds", "3")) * 1000.0);
         tableDelayMillis = (long) (Double.parseDouble(properties.getProperty("TableDelaySeconds", "0.1")) * 1000.0);
@@ -216,8 +295,13 @@ public class Config {
         playerNames = new String[players];
         Arrays.setAll(playerNames, i -> i < names.length ? names[i].trim() : "Player " + (i + 1));
 
-        rows = Integer.parseInt(properties.getProperty("Rows", "3"));
-        columns = Integer.parseInt(properties.getProperty("Columns", "4"));
+        int rowsValue = Integer.parseInt(properties.getProperty("Rows", "3"));
+        int columnsValue = Integer.parseInt(properties.getProperty("Columns", "4"));
+        if (rowsValue * columnsValue > MAX_TABLE_SIZE)
+            logger.severe("invalid table size: " + rowsValue + "x" + columnsValue + " (at most " + MAX_TABLE_SIZE
+                    + " slots)");
+        columns = Math.min(columnsValue, MAX_TABLE_SIZE);
+        rows = Math.min(rowsValue, MAX_TABLE_SIZE / Math.max(1, columns));
         tableSize = rows * columns;
         cellWidth = Integer.parseInt(properties.getProperty("CellWidth", "258"));
         cellHeight = Integer.parseInt(properties.getProperty("CellHeight", "167"));
@@ -1,5 +1,8 @@
 package bguspl.set;
 
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
 public class Env {
@@ -8,11 +11,63 @@ public class Env {
     public final Config config;
     public final UserInterface ui;
     public final Util util;
+    public final ThreadFactory threadFactory;
+
+    /**
+     * The workers that run the players when they are pooled (null if every player has its own thread).
+     */
+    public final ScheduledExecutorService playerPool;
+
+    /**
+     * The source of time of the game.
+     */
+    public final Clock clock;
+
+    /**
+     * The seed of the game's random choices (null if they are not reproducible).
+     */
+    private final Long seed;
 
     public Env(Logger logger, Config config, UserInterface ui, Util util) {
+        this(logger, config, ui, util, Thread::new);
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, ThreadFactory threadFactory) {
+        this(logger, config, ui, util, threadFactory, null);
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, ThreadFactory threadFactory,
+               ScheduledExecutorService playerPool) {
+        this(logger, config, ui, util, threadFactory, playerPool, config.randomSeed);
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, ThreadFactory threadFactory,
+               ScheduledExecutorService playerPool, Long seed) {
+        this(logger, config, ui, util, threadFactory, playerPool, seed,
+                config.clockSpeedup == 1 ? new SystemClock() : new VirtualClock(config.clockSpeedup));
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, ThreadFactory threadFactory,
+               ScheduledExecutorService playerPool, Long seed, Clock clock) {
         this.logger = logger;
         this.config = config;
         this.ui = ui;
         this.util = util;
+        this.threadFactory = threadFactory;
+        this.playerPool = playerPool;
+        this.seed = seed;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the random number generator of one of the game's entities. With a seed, every entity gets its own
+     * sequence, which is the same in every run.
+     *
+     * @param stream - which entity the generator is for (e.g. 0 for the dealer and id + 1 for a player).
+     * @return - the new random number generator.
+     */
+    public Random newRandom(long stream) {
+        if (seed == null) return new Random();
+        return new Random(seed ^ (stream + 1) * 0x9E3779B97F4A7C15L);
     }
 }
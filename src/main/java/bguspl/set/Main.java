@@ -1,8 +1,6 @@
 package bguspl.set;
 
-import bguspl.set.ex.Dealer;
 import bguspl.set.ex.Player;
-import bguspl.set.ex.Table;
 
 import java.io.File;
 import java.io.IOException;
@@ -17,7 +15,7 @@ import java.util.logging.*;
  */
 public class Main {
 
-    private static Dealer dealer;
+    private static RoomManager roomManager;
     private static Thread mainThread;
 
     private static boolean xButtonPressed = false;
@@ -26,7 +24,7 @@ public class Main {
     public static void xButtonPressed() throws InterruptedException {
         if (logger != null) logger.severe("exit button pressed");
         xButtonPressed = true;
-        if (dealer != null) dealer.terminate();
+        if (roomManager != null) roomManager.terminateAll();
         mainThread.join();
     }
 
@@ -45,44 +43,40 @@ public class Main {
         Config config = new Config(logger, "config.properties");
         Util util = new UtilImpl(config);
 
-        Player[] players = new Player[config.players];
-        UserInterface ui = null;
-        try {
-            ui = new UserInterfaceSwing(logger, config, players);
-        } catch (UnsupportedOperationException | IllegalArgumentException e) {
-            logger.severe("error creating swing user interface: " + e.getMessage());
-            logger.severe("will try to run without user interface");
-            if (config.humanPlayers > 0)
-                logger.severe("warning: running with human players with no user interface");
-        }
-        ui = new UserInterfaceDecorator(logger, util, ui);
-
-        Env env = new Env(logger, config, ui, util);
-
-        // create the game entities
-        Table table = new Table(env);
-        dealer = new Dealer(env, table, players);
-        for (int i = 0; i < players.length; i++)
-            players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
-
-        // start the dealer thread
-        ThreadLogger dealerThread = new ThreadLogger(dealer, "dealer", logger);
-        dealerThread.startWithLog();
+        // create the game rooms, only the first one is shown on the screen (the others have only computer players)
+        roomManager = new RoomManager(logger, config, util);
+        RoomManager.Room room = roomManager.open(players -> createUserInterface(config, players));
+        for (int i = 1; i < config.rooms; i++)
+            roomManager.open(null);
 
         try {
             // shutdown stuff
-            dealerThread.joinWithLog();
+            for (RoomManager.Room r : roomManager.rooms())
+                r.awaitEnd();
             if (!xButtonPressed && config.endGamePauseMillies > 0) Thread.sleep(config.endGamePauseMillies);
+            roomManager.shutdown();
         } catch (InterruptedException ignored) {
         } finally {
             logger.severe("thanks for playing... it was fun!");
             System.out.println("Thanks for playing... it was fun!");
             ThreadLogger.logStop(logger, Thread.currentThread().getName());
-            if (!xButtonPressed) env.ui.dispose();
+            if (!xButtonPressed) room.env.ui.dispose();
             for (Handler h : logger.getHandlers()) h.flush();
         }
     }
 
+    private static UserInterface createUserInterface(Config config, Player[] players) {
+        try {
+            return new UserInterfaceSwing(logger, config, players);
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            logger.severe("error creating swing user interface: " + e.getMessage());
+            logger.severe("will try to run without user interface");
+            if (config.humanPlayers > 0)
+                logger.severe("warning: running with human players with no user interface");
+            return null;
+        }
+    }
+
     private static Logger initLogger() {
 
         //just to make our log file nicer :)
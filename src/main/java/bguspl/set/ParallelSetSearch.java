@@ -0,0 +1,159 @@
+package bguspl.set;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Looks for sets in a collection of cards on a fork/join pool.
+ * The index of the first (smallest) card of the set is split between the workers, and every worker completes the
+ * sets starting at its cards the same way UtilImpl.findSets does.
+ */
+class ParallelSetSearch {
+
+    /**
+     * The number of first cards a single task handles without splitting further.
+     */
+    private static final int LEAF_SIZE = 16;
+
+    private final Util util;
+    private final int featureSize;
+
+    /**
+     * The searched cards, sorted.
+     */
+    private final int[] cards;
+
+    /**
+     * Presence bitset of the searched cards (indexed by card id).
+     */
+    private final long[] present;
+
+    /**
+     * The maximum number of sets to find (or count).
+     */
+    private final long limit;
+
+    /**
+     * True iff the sets are only counted and not collected.
+     */
+    private final boolean countOnly;
+
+    /**
+     * The number of sets found so far by all the workers (may pass the limit, only the first ones are kept).
+     */
+    private final AtomicLong found = new AtomicLong();
+
+    /**
+     * The sets collected by every leaf task, each chunk holds whole sets back to back.
+     */
+    private final ConcurrentLinkedQueue<int[]> chunks = new ConcurrentLinkedQueue<>();
+
+    ParallelSetSearch(Util util, Config config, int[] cards, long limit, boolean countOnly) {
+        this.util = util;
+        this.featureSize = config.featureSize;
+        this.cards = cards.clone();
+        Arrays.sort(this.cards);
+        this.limit = limit;
+        this.countOnly = countOnly;
+
+        present = new long[(config.deckSize + Long.SIZE - 1) / Long.SIZE];
+        for (int card : this.cards)
+            present[card / Long.SIZE] |= 1L << card;
+    }
+
+    /**
+     * Runs the search and returns the sets found.
+     *
+     * @return - the card ids of up to limit sets, featureSize consecutive ids per set.
+     */
+    int[] find() {
+        ForkJoinPool.commonPool().invoke(new Search(0, cards.length));
+        int sets = (int) Math.min(found.get(), limit);
+        int[] result = new int[sets * featureSize];
+        int length = 0;
+        for (int[] chunk : chunks) {
+            int copy = Math.min(chunk.length, result.length - length);
+            System.arraycopy(chunk, 0, result, length, copy);
+            length += copy;
+        }
+        return result;
+    }
+
+    /**
+     * Runs the search and returns the number of sets.
+     *
+     * @return - the number of sets found (at most limit).
+     */
+    long count() {
+        ForkJoinPool.commonPool().invoke(new Search(0, cards.length));
+        return Math.min(found.get(), limit);
+    }
+
+    /**
+     * A task handling the sets whose first card is in cards[from..to).
+     */
+    @SuppressWarnings("serial") // the tasks are never serialized
+    private class Search extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+
+        private int[] sets;
+        private int length;
+
+        Search(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Search(from, middle), new Search(middle, to));
+                return;
+            }
+
+            int[] partial = new int[featureSize - 1];
+            sets = countOnly ? null : new int[featureSize * 8];
+            length = 0;
+            for (int i = from; i < to && found.get() < limit; i++) {
+                partial[0] = cards[i];
+                search(partial, 1, i + 1);
+            }
+            if (length > 0)
+                chunks.add(Arrays.copyOf(sets, length));
+        }
+
+        /**
+         * Picks the rest of the cards of the set by increasing index and completes the last one.
+         */
+        private void search(int[] partial, int depth, int next) {
+            if (depth == partial.length) {
+                // only take a set from its smallest cards, so each set is found exactly once
+                int completion = util.completeSet(partial);
+                if (completion > partial[depth - 1] && (present[completion / Long.SIZE] & (1L << completion)) != 0)
+                    add(partial, completion);
+                return;
+            }
+            for (int i = next; i < cards.length && found.get() < limit; i++) {
+                partial[depth] = cards[i];
+                search(partial, depth + 1, i + 1);
+            }
+        }
+
+        private void add(int[] partial, int completion) {
+            // reserve a place for the set first, so the limit holds between the workers
+            if (found.getAndIncrement() >= limit || countOnly)
+                return;
+            if (length + featureSize > sets.length)
+                sets = Arrays.copyOf(sets, sets.length * 2);
+            System.arraycopy(partial, 0, sets, length, partial.length);
+            sets[length + partial.length] = completion;
+            length += featureSize;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * This class hosts any number of independent games (rooms) in one process.
+ * Every room has its own table, dealer and players, while the rooms share the configuration, the set engine (Util)
+ * and a pool of dealer threads, so opening and closing a room costs only the room's own objects.
+ */
+public class RoomManager {
+
+    private final Logger logger;
+    private final Config config;
+    private final Util util;
+
+    /**
+     * True iff the user interface events of the rooms are logged (see UserInterfaceDecorator).
+     */
+    private final boolean logEvents;
+
+    /**
+     * The threads the dealers of all the rooms run on (reused between rooms).
+     */
+    private final ExecutorService dealers;
+
+    /**
+     * The threads of the players of all the rooms. Virtual threads if configured (and supported), otherwise daemon
+     * threads, so a room that was not closed does not keep the process alive.
+     */
+    private final ThreadFactory playerThreads;
+
+    /**
+     * The workers that run the players of all the rooms when the players are pooled (null otherwise).
+     * There are config.playerPoolThreads workers (one per core by default). With a single worker the steps of all
+     * the players run one at a time, in the order they were asked for.
+     */
+    private final ScheduledExecutorService playerPool;
+
+    /**
+     * The open rooms by id.
+     */
+    private final Map<Integer, Room> rooms;
+
+    private final AtomicInteger nextId;
+
+    /**
+     * The class constructor.
+     *
+     * @param logger - the logger all the rooms write to.
+     * @param config - the game configuration of all the rooms.
+     * @param util   - the set engine shared by all the rooms.
+     */
+    public RoomManager(Logger logger, Config config, Util util) {
+        this(logger, config, util, true);
+    }
+
+    /**
+     * The class constructor.
+     *
+     * @param logger    - the logger all the rooms write to.
+     * @param config    - the game configuration of all the rooms.
+     * @param util      - the set engine shared by all the rooms.
+     * @param logEvents - false for rooms that do not log their user interface events (e.g. for measuring).
+     */
+    public RoomManager(Logger logger, Config config, Util util, boolean logEvents) {
+        this.logger = logger;
+        this.config = config;
+        this.util = util;
+        this.logEvents = logEvents;
+        ThreadFactory virtualThreads = config.virtualThreads ? virtualThreadFactory(logger) : null;
+        this.playerThreads = virtualThreads != null ? virtualThreads : RoomManager::daemonThread;
+        this.dealers = Executors.newCachedThreadPool(playerThreads);
+        this.playerPool = config.pooledPlayers
+                ? Executors.newScheduledThreadPool(config.playerPoolThreads, RoomManager::daemonThread)
+                : null;
+        this.rooms = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger();
+    }
+
+    private static Thread daemonThread(Runnable target) {
+        Thread thread = new Thread(target);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Looks up the virtual thread factory of the running JVM (Thread.ofVirtual().factory()). Done by reflection, so
+     * the game still builds and runs on the Java 8 target.
+     *
+     * @param logger - the logger to report a JVM with no virtual threads to.
+     * @return - the virtual thread factory, or null if the JVM has no virtual threads.
+     */
+    private static ThreadFactory virtualThreadFactory(Logger logger) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            logger.severe("virtual threads are not supported by this JVM (" + System.getProperty("java.version")
+                    + "), using platform threads");
+            return null;
+        }
+    }
+
+    /**
+     * Opens a new room and starts its game. A room with no user interface has no keyboard, so all its players are
+     * computer players.
+     *
+     * @param uiFactory - creates the user interface of the room for its players (null or returning null for a room
+     *                  with no user interface).
+     * @return - the new room.
+     */
+    public Room open(Function<Player[], UserInterface> uiFactory) {
+        int id = nextId.getAndIncrement();
+        Player[] players = new Player[config.players];
+        UserInterface ui = uiFactory == null ? null : uiFactory.apply(players);
+        int humanPlayers = ui == null ? 0 : config.humanPlayers;
+        if (logEvents)
+            ui = new UserInterfaceDecorator(logger, util, ui);
+        else if (ui == null)
+            ui = new UserInterfaceHeadless();
+        // with a seed every room plays a different game, which is the same in every run
+        Long seed = config.randomSeed == null ? null : config.randomSeed + id;
+        Env env = new Env(logger, config, ui, util, playerThreads, playerPool, seed);
+
+        Table table = new Table(env);
+        Dealer dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, i < humanPlayers);
+
+        Room room = new Room(id, env, table, dealer, players);
+        rooms.put(id, room);
+        room.game = dealers.submit(() -> {
+            Thread.currentThread().setName("room-" + id + " dealer");
+            dealer.run();
+        });
+        return room;
+    }
+
+    /**
+     * @return - the rooms that are open.
+     */
+    public Collection<Room> rooms() {
+        return new ArrayList<>(rooms.values());
+    }
+
+    /**
+     * Ends the game of every open room. Waits for the players of the rooms to stop, but not for the dealers to end
+     * their games (see Room.awaitEnd).
+     */
+    public void terminateAll() {
+        for (Room room : rooms.values())
+            room.terminate();
+    }
+
+    /**
+     * Ends the game of a room, waits for it to end and removes the room.
+     *
+     * @param room - the room to close.
+     */
+    public void close(Room room) throws InterruptedException {
+        room.terminate();
+        room.awaitEnd();
+        rooms.remove(room.id);
+    }
+
+    /**
+     * Closes all the rooms and stops the shared threads.
+     */
+    public void shutdown() throws InterruptedException {
+        for (Room room : rooms())
+            close(room);
+        dealers.shutdown();
+        if (playerPool != null)
+            playerPool.shutdown();
+    }
+
+    /**
+     * A single game hosted by the room manager.
+     */
+    public class Room {
+
+        /**
+         * The id of the room (unique within its manager).
+         */
+        public final int id;
+
+        public final Env env;
+        public final Table table;
+        public final Dealer dealer;
+        public final Player[] players;
+
+        /**
+         * The dealer's run on the shared dealer threads.
+         */
+        private volatile Future<?> game;
+
+        private Room(int id, Env env, Table table, Dealer dealer, Player[] players) {
+            this.id = id;
+            this.env = env;
+            this.table = table;
+            this.dealer = dealer;
+            this.players = players;
+        }
+
+        /**
+         * Ends the game of the room. Waits for the players to stop, but not for the dealer to end the game (see
+         * awaitEnd).
+         */
+        public void terminate() {
+            dealer.terminate();
+        }
+
+        /**
+         * @return - true iff the game of the room has ended.
+         */
+        public boolean isOver() {
+            return game.isDone();
+        }
+
+        /**
+         * Waits for the game of the room to end.
+         */
+        public void awaitEnd() throws InterruptedException {
+            try {
+                game.get();
+            } catch (ExecutionException e) {
+                logger.severe("room " + id + " ended with an error: " + e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package bguspl.set;
+
+import java.util.Arrays;
+
+/**
+ * A precomputed index of every legal set in the deck, for decks of 3-valued features (e.g. the standard 81 card deck,
+ * which has 1080 sets, 40 per card).
+ * Maps every pair of cards to the set that completes it and every card to the sets containing it, so set questions
+ * about a handful of cards are answered with a few array loads.
+ */
+public class SetIndex {
+
+    /**
+     * The largest deck that gets indexed (the pair table has deckSize ^ 2 entries).
+     */
+    static final int MAX_DECK_SIZE = 729;
+
+    private final int deckSize;
+
+    /**
+     * The card ids of every set, 3 consecutive (sorted) ids per set.
+     */
+    private final int[] sets;
+
+    /**
+     * Mapping between a pair of cards (first * deckSize + second) and the id of the set containing both (-1 if none).
+     */
+    private final int[] pairToSet;
+
+    /**
+     * The ids of the sets containing each card: the sets of card c are in cardSets[cardSetsStart[c] .. cardSetsStart[c + 1]).
+     */
+    private final int[] cardSetsStart;
+    private final int[] cardSets;
+
+    SetIndex(Config config) {
+        deckSize = config.deckSize;
+        pairToSet = new int[deckSize * deckSize];
+        Arrays.fill(pairToSet, -1);
+
+        // every pair completes to exactly one card, so there are deckSize * (deckSize - 1) / 6 sets
+        int count = deckSize * (deckSize - 1) / 6;
+        sets = new int[count * 3];
+        int id = 0;
+        for (int first = 0; first < deckSize; ++first)
+            for (int second = first + 1; second < deckSize; ++second) {
+                int third = complete(first, second, config.featureCount);
+                if (third <= second) continue; // the set is added from its two smallest cards
+                sets[id * 3] = first;
+                sets[id * 3 + 1] = second;
+                sets[id * 3 + 2] = third;
+                link(first, second, id);
+                link(first, third, id);
+                link(second, third, id);
+                ++id;
+            }
+
+        // every card is in the same number of sets
+        int perCard = deckSize == 0 ? 0 : count * 3 / deckSize;
+        cardSetsStart = new int[deckSize + 1];
+        cardSets = new int[count * 3];
+        int[] filled = new int[deckSize];
+        for (int card = 0; card <= deckSize; ++card)
+            cardSetsStart[card] = card * perCard;
+        for (int set = 0; set < count; ++set)
+            for (int i = 0; i < 3; ++i) {
+                int card = sets[set * 3 + i];
+                cardSets[cardSetsStart[card] + filled[card]++] = set;
+            }
+    }
+
+    /**
+     * Computes the card completing two cards, one base 3 digit (feature) at a time: the three values of a feature in a
+     * set are all the same or all different, so they always sum to 0 mod 3.
+     */
+    private static int complete(int first, int second, int featureCount) {
+        int third = 0;
+        for (int i = 0, weight = 1; i < featureCount; ++i, weight *= 3, first /= 3, second /= 3)
+            third += (6 - first % 3 - second % 3) % 3 * weight;
+        return third;
+    }
+
+    private void link(int first, int second, int set) {
+        pairToSet[first * deckSize + second] = set;
+        pairToSet[second * deckSize + first] = set;
+    }
+
+    /**
+     * @return - the number of sets in the deck.
+     */
+    public int setCount() {
+        return sets.length / 3;
+    }
+
+    /**
+     * @param set  - the set id.
+     * @param i    - the index of the card in the set (0, 1 or 2).
+     * @return - the id of the i-th (by card id) card of the set.
+     */
+    public int card(int set, int i) {
+        return sets[set * 3 + i];
+    }
+
+    /**
+     * @param set - the set id.
+     * @return - the ids of the cards of the set (sorted).
+     */
+    public int[] cards(int set) {
+        return Arrays.copyOfRange(sets, set * 3, set * 3 + 3);
+    }
+
+    /**
+     * @param first  - a card id.
+     * @param second - another card id.
+     * @return - the id of the set containing both cards, or -1 if they are the same card.
+     */
+    public int setOf(int first, int second) {
+        return pairToSet[first * deckSize + second];
+    }
+
+    /**
+     * @param first  - a card id.
+     * @param second - another card id.
+     * @return - the card that completes both cards to a legal set, or -1 if they are the same card.
+     */
+    public int complete(int first, int second) {
+        int set = pairToSet[first * deckSize + second];
+        if (set == -1) return -1;
+        // the three cards of a set are different, so xor-ing out the two known ones leaves the third
+        return sets[set * 3] ^ sets[set * 3 + 1] ^ sets[set * 3 + 2] ^ first ^ second;
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - the number of sets containing the card.
+     */
+    public int setsContainingCount(int card) {
+        return cardSetsStart[card + 1] - cardSetsStart[card];
+    }
+
+    /**
+     * @param card - the card id.
+     * @param i    - the index of the set (between 0 and setsContainingCount(card) - 1).
+     * @return - the id of the i-th set containing the card.
+     */
+    public int setContaining(int card, int i) {
+        return cardSets[cardSetsStart[card] + i];
+    }
+
+    /**
+     * Counts the legal sets among the given cards.
+     *
+     * @param cards - different card ids (e.g. the cards on the table).
+     * @return - the number of legal sets among the cards.
+     */
+    public int countSets(int[] cards) {
+        long[] present = presence(cards);
+        // every set is reached once from each of its 3 pairs
+        int pairs = 0;
+        for (int i = 0; i < cards.length; ++i)
+            for (int j = i + 1; j < cards.length; ++j)
+                if (contains(present, complete(cards[i], cards[j])))
+                    ++pairs;
+        return pairs / 3;
+    }
+
+    /**
+     * Finds the legal sets among the given cards.
+     *
+     * @param cards - different card ids (e.g. the cards on the table).
+     * @return - the ids of the sets whose cards are all in cards (each set once).
+     */
+    public int[] setsAmong(int[] cards) {
+        long[] present = presence(cards);
+        int[] found = new int[cards.length * (cards.length - 1) / 6 + 1];
+        int count = 0;
+        for (int i = 0; i < cards.length; ++i)
+            for (int j = i + 1; j < cards.length; ++j) {
+                int third = complete(cards[i], cards[j]);
+                // only take a set from its two smallest cards
+                if (third > cards[i] && third > cards[j] && contains(present, third))
+                    found[count++] = setOf(cards[i], cards[j]);
+            }
+        return Arrays.copyOf(found, count);
+    }
+
+    private long[] presence(int[] cards) {
+        long[] present = new long[(deckSize + Long.SIZE - 1) / Long.SIZE];
+        for (int card : cards)
+            present[card / Long.SIZE] |= 1L << card;
+        return present;
+    }
+
+    private static boolean contains(long[] present, int card) {
+        return card >= 0 && (present[card / Long.SIZE] & (1L << card)) != 0;
+    }
+}
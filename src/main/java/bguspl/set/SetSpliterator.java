@@ -0,0 +1,90 @@
+package bguspl.set;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Lazily walks the sets in a collection of cards, one set per tryAdvance.
+ * The cards are walked by (featureSize - 1)-combinations in lexicographic order and every combination is completed to
+ * a set (see Util.completeSet). When a set cannot be completed uniquely, whole featureSize-combinations are tested.
+ */
+class SetSpliterator extends Spliterators.AbstractSpliterator<int[]> {
+
+    private final Util util;
+
+    /**
+     * The searched cards, sorted.
+     */
+    private final int[] cards;
+
+    /**
+     * Presence bitset of the searched cards (indexed by card id), only used when completing sets.
+     */
+    private final long[] present;
+
+    /**
+     * True iff the last card of every set is computed instead of searched for.
+     */
+    private final boolean complete;
+
+    /**
+     * The indices of the current combination and the card ids in it.
+     */
+    private final int[] combination;
+    private final int[] partial;
+
+    SetSpliterator(Util util, Config config, int[] cards, boolean complete) {
+        super(Long.MAX_VALUE, Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        this.util = util;
+        this.cards = cards.clone();
+        Arrays.sort(this.cards);
+        this.complete = complete;
+
+        int r = complete ? config.featureSize - 1 : config.featureSize;
+        combination = new int[r];
+        partial = new int[r];
+        for (int i = 0; i < r; ++i)
+            combination[i] = i;
+
+        present = new long[complete ? (config.deckSize + Long.SIZE - 1) / Long.SIZE : 0];
+        if (complete)
+            for (int card : this.cards)
+                present[card / Long.SIZE] |= 1L << card;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super int[]> action) {
+        int n = cards.length;
+        int r = combination.length;
+
+        while (r > 0 && combination[r - 1] < n) {
+            for (int i = 0; i < r; ++i)
+                partial[i] = cards[combination[i]];
+            int[] set = null;
+
+            if (complete) {
+                // only take a set from its smallest cards, so each set is found exactly once
+                int completion = util.completeSet(partial);
+                if (completion > partial[r - 1] && (present[completion / Long.SIZE] & (1L << completion)) != 0) {
+                    set = Arrays.copyOf(partial, r + 1);
+                    set[r] = completion;
+                }
+            } else if (util.testSet(partial))
+                set = partial.clone();
+
+            // generate next combination in lexicographic order
+            int t = r - 1;
+            while (t != 0 && combination[t] == n - r + t) --t;
+            combination[t]++;
+            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
+
+            if (set != null) {
+                action.accept(set);
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,133 @@
+package bguspl.set;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * This class runs whole games of computer players as fast as the engine allows, for measuring it.
+ * The games have no user interface, no table or end of game delays and no logging, and their clocks run much faster
+ * than the real time (see CLOCK_SPEEDUP). The results are printed as games per second, claims per second and
+ * percentiles of the time claims waited for the dealer's verdict.
+ */
+public class Simulation {
+
+    /**
+     * How many times faster than the real time the games' clocks run (unless the configuration asks for more), so
+     * the turn timeouts, freezes and reaction times of the computer players take next to no real time.
+     */
+    private static final double CLOCK_SPEEDUP = 1000;
+
+    /**
+     * The simulation's main function.
+     *
+     * @param args - the number of games to run (default 10), the number of games to run at once (default the number
+     *             of cores) and the configuration file (default config.properties).
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int parallel = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String configFilename = args.length > 2 ? args[2] : "config.properties";
+
+        // a logger that writes nowhere (its level is set by the configuration, see simulationProperties)
+        Logger logger = Logger.getLogger("SetSimulationLogger");
+        logger.setUseParentHandlers(false);
+
+        Config config = new Config(logger, simulationProperties(Config.loadProperties(configFilename, logger)));
+        Util util = new UtilImpl(config);
+        RoomManager roomManager = new RoomManager(logger, config, util, false);
+
+        // every room's dealer adds to latencies of its own, they are merged after the room is closed
+        Latencies latencies = new Latencies();
+        Deque<RoomManager.Room> running = new ArrayDeque<>();
+        Deque<Latencies> runningLatencies = new ArrayDeque<>();
+        int started = 0;
+        long start = System.nanoTime();
+        try {
+            while (started < games || !running.isEmpty()) {
+                while (started < games && running.size() < parallel) {
+                    RoomManager.Room room = roomManager.open(null);
+                    Latencies roomLatencies = new Latencies();
+                    room.dealer.setVerdictListener(roomLatencies::add);
+                    running.add(room);
+                    runningLatencies.add(roomLatencies);
+                    ++started;
+                }
+                RoomManager.Room room = running.poll();
+                room.awaitEnd();
+                roomManager.close(room);
+                latencies.addAll(runningLatencies.poll());
+            }
+            roomManager.shutdown();
+        } catch (InterruptedException ignored) {
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("games: %d in %.2f s (%.3f games/s, %d at once, %s players)%n", games, seconds,
+                games / seconds, parallel, config.pooledPlayers ? "pooled" : "threaded");
+        System.out.printf("claims: %d (%.1f claims/s)%n", latencies.size, latencies.size / seconds);
+        long[] sorted = latencies.sorted();
+        if (sorted.length > 0)
+            System.out.printf("verdict latency (us): p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                    percentile(sorted, 50) / 1e3, percentile(sorted, 90) / 1e3, percentile(sorted, 99) / 1e3,
+                    percentile(sorted, 99.9) / 1e3, sorted[sorted.length - 1] / 1e3);
+    }
+
+    /**
+     * @param properties - the configuration read from the file.
+     * @return - the configuration with only computer players, no logging, no artificial delays and a fast clock.
+     */
+    private static Properties simulationProperties(Properties properties) {
+        // the configuration sets the level of the logger, so nothing is logged
+        properties.setProperty("LogLevel", "OFF");
+        properties.setProperty("HumanPlayers", "0");
+        if (Integer.parseInt(properties.getProperty("ComputerPlayers", "0").trim()) <= 0)
+            properties.setProperty("ComputerPlayers", "4");
+        properties.setProperty("Hints", "False");
+        properties.setProperty("TableDelaySeconds", "0");
+        properties.setProperty("EndGamePauseSeconds", "0");
+        properties.setProperty("RandomSpinMin", "0");
+        properties.setProperty("RandomSpinMax", "0");
+        double speedup = Double.parseDouble(properties.getProperty("ClockSpeedup", "1").trim());
+        properties.setProperty("ClockSpeedup", Double.toString(Math.max(speedup, CLOCK_SPEEDUP)));
+        return properties;
+    }
+
+    /**
+     * @param sorted  - values sorted in increasing order.
+     * @param percent - the percentile (between 0 and 100).
+     * @return - the value at the percentile (nearest rank).
+     */
+    private static long percentile(long[] sorted, double percent) {
+        int rank = (int) Math.ceil(percent / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * A growing list of verdict latencies (in nanoseconds).
+     */
+    private static class Latencies {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long latency) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = latency;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; ++i)
+                add(other.values[i]);
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
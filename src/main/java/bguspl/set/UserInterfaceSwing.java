@@ -8,6 +8,8 @@ import java.io.FileNotFoundException;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -24,6 +26,11 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
     private final WinnerPanel winnerPanel;
     private final Config config;
 
+    /**
+     * The card images by resource name.
+     */
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+
     static String intInBaseToPaddedString(int n, int padding, int base) {
         return format("%" + padding + "s", Integer.toString(n, base)).replace(' ', '0');
     }
@@ -109,10 +116,13 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
         private final JLabel[][] tokenText;
 
         private Image loadImageResource(String filename) {
-            URL imageResource = getClass().getClassLoader().getResource(filename);
-            if (imageResource == null)
-                throw new RuntimeException(new FileNotFoundException(filename));
-            return new ImageIcon(imageResource).getImage();
+            // the images are loaded once and shared by all the windows
+            return images.computeIfAbsent(filename, name -> {
+                URL imageResource = getClass().getClassLoader().getResource(name);
+                if (imageResource == null)
+                    throw new RuntimeException(new FileNotFoundException(name));
+                return new ImageIcon(imageResource).getImage();
+            });
         }
 
         private GamePanel() {
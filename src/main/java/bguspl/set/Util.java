@@ -1,12 +1,22 @@
 package bguspl.set;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * An interface for general utilities provided for convenience.
  */
 public interface Util {
 
+    /**
+     * Returns a single feature of a card, read from a table computed once (does not allocate).
+     *
+     * @param card    - the card id.
+     * @param feature - the feature index (between 0 and config.featureCount - 1).
+     * @return - the value of the feature (between 0 and config.featureSize - 1).
+     */
+    int feature(int card, int feature);
+
     /**
      * Converts a card id to an array of features (of config.featureCount values between 0 and config.featuresSize - 1)
      *
@@ -25,12 +35,22 @@ public interface Util {
 
     /**
      * Checks if an array of cards forms a legal set.
+     * Works directly on the card ids and does not allocate.
      *
      * @param cards - the array of cards.
      * @return - true iff the array forms a legal set.
      */
     boolean testSet(int[] cards);
 
+    /**
+     * Finds the card that completes the given cards to a legal set.
+     * Works directly on the card ids and does not allocate.
+     *
+     * @param cards - an array of config.featureSize - 1 different card ids (config.featureSize must be at least 3).
+     * @return - the id of the only card that forms a legal set with the given cards, or -1 if there is none.
+     */
+    int completeSet(int[] cards);
+
     /**
      * Finds and returns up to count sets in the given collection of cards.
      *
@@ -40,6 +60,42 @@ public interface Util {
      */
     List<int[]> findSets(List<Integer> deck, int count);
 
+    /**
+     * Returns a lazy stream of the sets in the given cards. Sets are only searched for as the stream is consumed, so
+     * short-circuiting operations (e.g. limit, findFirst, anyMatch) pay only for the sets they look at.
+     *
+     * @param cards - an array of different card ids.
+     * @return - a sequential stream of integer arrays, each one contains the card ids of a legal set (sorted).
+     */
+    Stream<int[]> streamSets(int[] cards);
+
+    /**
+     * Finds up to count sets in the given cards, splitting the search between the workers of the common fork/join pool.
+     *
+     * @param cards - an array of different card ids.
+     * @param count - the maximum number of sets to find (the workers stop as soon as it is reached).
+     * @return - the card ids of up to count legal sets, config.featureSize consecutive ids per set.
+     */
+    int[] findSetsParallel(int[] cards, int count);
+
+    /**
+     * Counts the sets in the given cards, with the set index if there is one (see setIndex), and otherwise splitting
+     * the search between the workers of the common fork/join pool.
+     *
+     * @param cards - an array of different card ids.
+     * @param count - the maximum number of sets to count (the workers stop as soon as it is reached).
+     * @return - the number of legal sets in the cards, or count if there are more.
+     */
+    long countSets(int[] cards, long count);
+
+    /**
+     * Returns the precomputed index of all the sets in the deck, available for decks of 3-valued features that are
+     * small enough (e.g. the standard 81 card deck).
+     *
+     * @return - the set index, or null if the deck is not indexed.
+     */
+    SetIndex setIndex();
+
     /**
      * Spin a random number of times (for debugging/testing).
      */
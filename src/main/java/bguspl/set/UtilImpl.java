@@ -4,24 +4,69 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The implementation of the UserInterface interface.
  */
 public class UtilImpl implements Util {
 
+    /**
+     * The number of cards from which findSets splits the search on the fork/join pool.
+     */
+    private static final int PARALLEL_THRESHOLD = 512;
+
     private final Config config;
 
+    /**
+     * The place value of each feature digit in a card id (i.e. featureSize ^ (featureCount - 1 - i)).
+     */
+    private final int[] featureWeights;
+
+    /**
+     * The features of every card, one byte per feature: the features of card c are in
+     * featureTable[c * featureCount .. (c + 1) * featureCount). Null if a feature value does not fit in a byte.
+     */
+    private final byte[] featureTable;
+
+    /**
+     * The index of every set in the deck (null if the deck is not made of 3-valued features or is too big).
+     */
+    private final SetIndex setIndex;
+
     public UtilImpl(Config config) {
         this.config = config;
+
+        featureWeights = new int[config.featureCount];
+        for (int i = config.featureCount - 1, weight = 1; i >= 0; --i, weight *= config.featureSize)
+            featureWeights[i] = weight;
+
+        // computed once, so every feature lookup afterwards is a single array load
+        if (config.featureSize <= 256) {
+            featureTable = new byte[config.deckSize * config.featureCount];
+            for (int card = 0, index = 0; card < config.deckSize; ++card)
+                for (int i = 0; i < config.featureCount; ++i)
+                    featureTable[index++] = (byte) (card / featureWeights[i] % config.featureSize);
+        } else featureTable = null;
+
+        setIndex = config.featureSize == 3 && config.deckSize <= SetIndex.MAX_DECK_SIZE ? new SetIndex(config) : null;
+    }
+
+    @Override
+    public SetIndex setIndex() {
+        return setIndex;
+    }
+
+    @Override
+    public int feature(int card, int feature) {
+        if (featureTable == null) return card / featureWeights[feature] % config.featureSize;
+        return featureTable[card * config.featureCount + feature] & 0xFF;
     }
 
     private void cardToFeatures(int card, int[] features) {
-        for (int i = config.featureCount - 1; i >= 0; --i) {
-            features[i] = card % config.featureSize;
-            card /= config.featureSize;
-        }
+        for (int i = 0; i < config.featureCount; ++i)
+            features[i] = feature(card, i);
     }
 
     @Override
@@ -34,12 +79,37 @@ public class UtilImpl implements Util {
     @Override
     public int[][] cardsToFeatures(int[] cards) {
         int[][] features = new int[cards.length][config.featureCount];
-        IntStream.range(0, cards.length).forEach(i -> cardToFeatures(cards[i], features[i]));
+        for (int i = 0; i < cards.length; ++i)
+            cardToFeatures(cards[i], features[i]);
         return features;
     }
 
     @Override
     public boolean testSet(int[] cards) {
+        if (cards.length == 0) return false;
+        if (config.featureSize > Long.SIZE) return testSetByFeatures(cards);
+
+        // for every feature collect the values shown by the cards as a bit mask
+        for (int i = 0; i < config.featureCount; ++i) {
+            long values = 0;
+            for (int card : cards)
+                values |= 1L << feature(card, i);
+
+            // the feature is legal iff it is either sameSame (one value) or butDifferent (a value per card)
+            int distinct = Long.bitCount(values);
+            if ((distinct == 1) == (distinct == cards.length)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an array of cards forms a legal set by comparing their feature arrays.
+     * Only used for feature sizes too big to fit in a bit mask.
+     *
+     * @param cards - the array of cards.
+     * @return - true iff the array forms a legal set.
+     */
+    private boolean testSetByFeatures(int[] cards) {
         int[][] features = cardsToFeatures(Arrays.copyOf(cards, cards.length));
         for (int i = 0; i < config.featureCount; ++i) {
             boolean sameSame = true, butDifferent = true;
@@ -64,32 +134,70 @@ public class UtilImpl implements Util {
         return true;
     }
 
+    @Override
+    public int completeSet(int[] cards) {
+        if (setIndex != null && cards.length == 2) return setIndex.complete(cards[0], cards[1]);
+
+        int card = 0;
+        for (int i = 0; i < config.featureCount; ++i) {
+            long values = 0;
+            for (int c : cards)
+                values |= 1L << feature(c, i);
+
+            // sameSame: the missing card repeats the value, butDifferent: it shows the only value not used yet
+            int value, distinct = Long.bitCount(values);
+            if (distinct == 1) value = Long.numberOfTrailingZeros(values);
+            else if (distinct == cards.length) value = Long.numberOfTrailingZeros(~values);
+            else return -1;
+            card += value * featureWeights[i];
+        }
+        return card;
+    }
+
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
+        int[] cards = deck.stream().mapToInt(Integer::intValue).toArray();
         LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
-        int r = config.featureSize;
-        int[] combination = new int[r];
-
-        for (int i = 0; i < r; ++i)
-            combination[i] = i;
-
-        while (combination[r - 1] < deck.size()) {
-            int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
-            if (testSet(cards)) {
-                sets.add(cards);
-                if (sets.size() >= count) return sets;
-            }
-
-            // generate next combination in lexicographic order
-            int t = r - 1;
-            while (t != 0 && combination[t] == n - r + t) --t;
-            combination[t]++;
-            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
+        if (canCompleteSets() && cards.length >= PARALLEL_THRESHOLD) {
+            int[] found = findSetsParallel(cards, count);
+            for (int i = 0; i < found.length; i += config.featureSize)
+                sets.add(Arrays.copyOfRange(found, i, i + config.featureSize));
+            return sets;
         }
+        streamSets(cards).limit(count).forEach(sets::add);
         return sets;
     }
 
+    @Override
+    public Stream<int[]> streamSets(int[] cards) {
+        return StreamSupport.stream(new SetSpliterator(this, config, cards, canCompleteSets()), false);
+    }
+
+    @Override
+    public int[] findSetsParallel(int[] cards, int count) {
+        if (!canCompleteSets())
+            return streamSets(cards).limit(count).flatMapToInt(Arrays::stream).toArray();
+        return new ParallelSetSearch(this, config, cards, count, false).find();
+    }
+
+    @Override
+    public long countSets(int[] cards, long count) {
+        // with the index every pair of cards is a single lookup, which is cheaper than splitting the search
+        if (setIndex != null)
+            return Math.min(count, setIndex.countSets(cards));
+        if (!canCompleteSets())
+            return streamSets(cards).limit(count).count();
+        return new ParallelSetSearch(this, config, cards, count, true).count();
+    }
+
+    /**
+     * @return - true iff a set can be completed uniquely from featureSize - 1 of its cards, i.e. every feature has at
+     *           least 3 values (and they fit in a bit mask).
+     */
+    private boolean canCompleteSets() {
+        return config.featureSize >= 3 && config.featureSize <= Long.SIZE;
+    }
+
     public void spin() {
         if (config.randomSpinMax <= 0) return;
         long cycles = ThreadLocalRandom.current().nextLong(config.randomSpinMin, config.randomSpinMax);
@@ -0,0 +1,78 @@
+package bguspl.set;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An implementation of the Clock interface whose time runs a given number of times faster than the real time, and
+ * that can also be moved forward at will. Sleeping and parking on it take the real time their interval is worth, so
+ * e.g. with a speedup of 1000 a 60 second turn timeout passes in 60 milliseconds and a 3 second penalty in 3.
+ */
+public class VirtualClock implements Clock {
+
+    /**
+     * How many times faster than the real time the clock runs.
+     */
+    private final double speedup;
+
+    /**
+     * The real time (System.nanoTime) and the wall clock time (System.currentTimeMillis) the clock was started at.
+     */
+    private final long realStart;
+    private final long startMillis;
+
+    /**
+     * The time the clock was moved forward by (see advance) in nanoseconds.
+     */
+    private final AtomicLong skipped;
+
+    /**
+     * The class constructor.
+     *
+     * @param speedup - how many times faster than the real time the clock runs (1 for real time).
+     */
+    public VirtualClock(double speedup) {
+        if (speedup <= 0)
+            throw new IllegalArgumentException("clock speedup must be positive: " + speedup);
+        this.speedup = speedup;
+        this.realStart = System.nanoTime();
+        this.startMillis = System.currentTimeMillis();
+        this.skipped = new AtomicLong();
+    }
+
+    /**
+     * Moves the clock forward. Threads waiting on the clock notice it when they wake up next.
+     *
+     * @param millis - the time to move the clock forward by in milliseconds.
+     */
+    public void advance(long millis) {
+        skipped.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(nanoTime());
+    }
+
+    @Override
+    public long nanoTime() {
+        return (long) ((System.nanoTime() - realStart) * speedup) + skipped.get();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(toRealNanos(TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+
+    @Override
+    public void parkNanos(Object blocker, long nanos) {
+        LockSupport.parkNanos(blocker, toRealNanos(nanos));
+    }
+
+    @Override
+    public long toRealNanos(long nanos) {
+        // rounded up, so waiting for a positive interval always waits
+        return (long) Math.ceil(nanos / speedup);
+    }
+}
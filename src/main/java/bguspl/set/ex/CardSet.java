@@ -0,0 +1,125 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+
+/**
+ * This class holds a group of card ids as a dense array plus the index of every card in it.
+ * Adding, removing and looking up a card take constant time (removing swaps the last card into the removed card's
+ * place), and the cards can be iterated over by index.
+ *
+ * @inv 0 <= size() <= capacity
+ * @inv cards[position[card]] == card iff contains(card)
+ */
+public class CardSet {
+
+    /**
+     * The card ids in the group, packed in the first size entries (in no particular order).
+     */
+    private final int[] cards;
+
+    /**
+     * Mapping between a card and its index in cards (-1 if it is not in the group).
+     */
+    private final int[] position;
+
+    /**
+     * The number of cards in the group.
+     */
+    private int size;
+
+    /**
+     * The class constructor.
+     *
+     * @param capacity - the number of card ids the group can hold (usually config.deckSize).
+     */
+    public CardSet(int capacity) {
+        this.cards = new int[capacity];
+        this.position = new int[capacity];
+        this.size = 0;
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Adds a card to the group.
+     *
+     * @param card - the card id.
+     * @pre - contains(card) == false
+     * @post - contains(card) == true
+     */
+    public void add(int card) {
+        position[card] = size;
+        cards[size++] = card;
+    }
+
+    /**
+     * Removes a card from the group.
+     *
+     * @param card - the card id.
+     * @pre - contains(card) == true
+     * @post - contains(card) == false
+     */
+    public void remove(int card) {
+        // move the last card into the removed card's place
+        int index = position[card];
+        int last = cards[--size];
+        cards[index] = last;
+        position[last] = index;
+        position[card] = -1;
+    }
+
+    /**
+     * Removes all the cards from the group.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            position[cards[i]] = -1;
+        size = 0;
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - true iff the card is in the group.
+     */
+    public boolean contains(int card) {
+        return position[card] != -1;
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - the index of the card in the group, or -1 if it is not in it.
+     */
+    public int indexOf(int card) {
+        return position[card];
+    }
+
+    /**
+     * @return - the number of cards in the group.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return - true iff the group is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a card of the group, for iterating over the group with no allocation.
+     *
+     * @param index - the index of the card (between 0 and size() - 1).
+     * @return - the id of the card.
+     */
+    public int get(int index) {
+        return cards[index];
+    }
+
+    /**
+     * @return - a new array with the cards of the group.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(cards, size);
+    }
+}
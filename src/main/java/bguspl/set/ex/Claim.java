@@ -0,0 +1,58 @@
+package bguspl.set.ex;
+
+/**
+ * This class holds a player's request for the dealer to check a set.
+ * Claims are immutable, so they can be handed from the player threads to the dealer thread without locking.
+ */
+public final class Claim {
+
+    /**
+     * The id of the player that submitted the claim.
+     */
+    public final int player;
+
+    /**
+     * The card ids the player placed tokens on.
+     */
+    private final int[] cards;
+
+    /**
+     * The time the claim was submitted (in System.nanoTime units).
+     */
+    public final long submitTime;
+
+    /**
+     * The class constructor.
+     *
+     * @param player     - the id of the player submitting the claim.
+     * @param cards      - the card ids the player placed tokens on.
+     * @param submitTime - the time the claim was submitted (in System.nanoTime units).
+     */
+    public Claim(int player, int[] cards, long submitTime) {
+        this.player = player;
+        this.cards = cards.clone();
+        this.submitTime = submitTime;
+    }
+
+    /**
+     * @return - a copy of the card ids of the claim.
+     */
+    public int[] cards() {
+        return cards.clone();
+    }
+
+    /**
+     * @return - the number of cards in the claim.
+     */
+    public int size() {
+        return cards.length;
+    }
+
+    /**
+     * @param i - the index of the card in the claim.
+     * @return - the id of the i-th card of the claim.
+     */
+    public int card(int i) {
+        return cards[i];
+    }
+}
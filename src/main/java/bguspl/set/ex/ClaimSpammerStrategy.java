@@ -0,0 +1,51 @@
+package bguspl.set.ex;
+
+import bguspl.set.Util;
+
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * An adversarial computer player that claims as often as it can with cards that never form a legal set, so every
+ * claim makes the dealer check it and penalize the player.
+ */
+public class ClaimSpammerStrategy implements Strategy {
+
+    private final Util util;
+    private final int featureSize;
+    private final Random random;
+
+    /**
+     * The class constructor.
+     *
+     * @param util        - the set engine, to avoid the card that would complete a set.
+     * @param featureSize - the number of cards in a claim.
+     * @param random      - the source of the random choices.
+     */
+    public ClaimSpammerStrategy(Util util, int featureSize, Random random) {
+        this.util = util;
+        this.featureSize = featureSize;
+        this.random = random;
+    }
+
+    @Override
+    public int nextSlot(Table table, Collection<Integer> marked) {
+        if (marked.size() >= featureSize)
+            return -1;
+        int exclude = -1;
+        // the last card of the claim is anything but the one that completes a set
+        if (marked.size() == featureSize - 1) {
+            int[] cards = new int[marked.size()];
+            int i = 0;
+            for (int card : marked)
+                cards[i++] = card;
+            exclude = util.completeSet(cards);
+        }
+        return RandomStrategy.randomSlot(table, marked, exclude, random);
+    }
+
+    @Override
+    public long delayMillis() {
+        return 0;
+    }
+}
@@ -2,12 +2,18 @@ package bguspl.set.ex;
 
 import bguspl.set.Env;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.Collectors;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
 import java.util.stream.IntStream;
 
 /**
@@ -15,16 +21,24 @@ import java.util.stream.IntStream;
  */
 public class Dealer implements Runnable {
 
+    /**
+     * The time left in the round when the hints are printed.
+     */
+    private static final long TIME_FOR_HINT = 15000;
+
     /**
      * Vars we added
      */
-    private Thread dealerThread; // the dealer's thread
+    private volatile Thread dealerThread; // the dealer's thread
     private Thread[] playersThreads; // all of the players threads
     private long startTime; // when we start the round (Usually equals to Long.Max\0 to tell it to reset)
     private int playerIdWithSet;
     private boolean showHint; // if i showed the hint in this round
-    public static List<LinkedList<Integer>> legalSetCheckList; // All the sets we need to check if legal, by order
-    public static List<Integer> legalSetOrderList;// All the IDs of the players, with the order of legalSetCheckList
+    private final Queue<Claim> claims; // All the sets we need to check if legal, by order (lock free, many players add)
+    private final List<List<Claim>> claimsByCard; // the claims being checked that contain each card
+    private final Set<Claim> invalidClaims; // claims being checked that lost a card to an accepted set
+    private volatile LongConsumer verdictListener; // told how long every claim waited for its verdict (if any)
+    private final Random random; // the dealer's random choices (seeded by the env)
 
     /**
      * The game environment object.
@@ -38,9 +52,24 @@ public class Dealer implements Runnable {
     private final Player[] players;
 
     /**
-     * The list of card ids that are left in the dealer's deck.
+     * The card ids that are left in the dealer's deck.
+     */
+    private final DrawPile deck;
+
+    /**
+     * The legal sets left among the cards still in play (the deck and the table).
+     */
+    private final SetCounter setsInPlay;
+
+    /**
+     * The legal sets among the cards on the table.
+     */
+    private final SetCounter setsOnTable;
+
+    /**
+     * Scratch array for the table cards being completed to a set (see completionInDeck).
      */
-    private final List<Integer> deck;
+    private final int[] completionPartial;
 
     /**
      * True iff game should be terminated.
@@ -57,18 +86,33 @@ public class Dealer implements Runnable {
         this.table = table;
         this.players = players;
         this.terminate = false;
-        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
+        random = env.newRandom(0);
+        deck = new DrawPile(env.config.deckSize, random);
+        for (int card = 0; card < env.config.deckSize; card++)
+            deck.add(card);
+        setsInPlay = new SetCounter(env);
+        setsInPlay.addAll(IntStream.range(0, env.config.deckSize).toArray());
+        setsOnTable = new SetCounter(env);
+        completionPartial = new int[Math.max(env.config.featureSize - 1, 0)];
 
         // Vars we added:
         this.dealerThread = null; // will update on the thread
-        legalSetCheckList = new LinkedList<LinkedList<Integer>>();
-        legalSetOrderList = new LinkedList<Integer>();
+        this.claims = new ConcurrentLinkedQueue<Claim>();
+        this.claimsByCard = createClaimsIndex(env.config.deckSize);
+        this.invalidClaims = new HashSet<Claim>();
         this.playersThreads = new Thread[players.length];
         this.startTime = Long.MAX_VALUE;
         this.playerIdWithSet = -1; // no set
         this.showHint = false;
     }
 
+    private static List<List<Claim>> createClaimsIndex(int deckSize) {
+        List<List<Claim>> index = new ArrayList<List<Claim>>(deckSize);
+        for (int card = 0; card < deckSize; card++)
+            index.add(new ArrayList<Claim>());
+        return index;
+    }
+
     /*
      * Methods we added
      */
@@ -84,10 +128,44 @@ public class Dealer implements Runnable {
         return this.playersThreads;
     }
 
-    public List<Integer> getDeck() {
+    public DrawPile getDeck() {
         return this.deck;
     }
 
+    long getReshuffleTime() {
+        return this.reshuffleTime;
+    }
+
+    /**
+     * Sets who is told how long (in nanoseconds) every claim waited for the dealer's verdict, e.g. for measuring.
+     * The listener is called on the dealer thread.
+     *
+     * @param listener - the listener, or null for none.
+     */
+    public void setVerdictListener(LongConsumer listener) {
+        this.verdictListener = listener;
+    }
+
+    /**
+     * Called by a player to ask the dealer to check a set. Does not block, the dealer checks it on its own thread.
+     *
+     * @param claim - the claim of the player.
+     */
+    public void submitClaim(Claim claim) {
+        claims.add(claim);
+        // waking up the dealer so it will check the set
+        wakeUp();
+    }
+
+    /**
+     * Wakes the dealer thread up if it is waiting for its next deadline (see sleepUntilWokenOrTimeout).
+     */
+    private void wakeUp() {
+        Thread thread = dealerThread;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
     /**
      * The dealer thread starts here (main loop for the dealer thread).
      */
@@ -95,12 +173,18 @@ public class Dealer implements Runnable {
     public void run() {
         env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
         dealerThread = Thread.currentThread();
-        env.ui.setCountdown(env.config.turnTimeoutMillis, false); // We started the game with 60 seconds on the clock
+        resetTimerDisplay(); // We started the game with 60 seconds on the clock
 
         // creating the players threads and running them
 
         for (Player p : players) {
-            playersThreads[p.getId()] = new Thread(p, "Player " + p.getId());
+            // pooled players have no threads of their own
+            if (env.playerPool != null) {
+                p.startPooled();
+                continue;
+            }
+            playersThreads[p.getId()] = env.threadFactory.newThread(p);
+            playersThreads[p.getId()].setName("Player " + p.getId());
             playersThreads[p.getId()].start();
         }
 
@@ -122,7 +206,9 @@ public class Dealer implements Runnable {
      * not time out.
      */
     private void timerLoop() {
-        while (!terminate && System.currentTimeMillis() < reshuffleTime) {
+        // with no countdown the round ends when there is no set left on the table
+        while (!terminate && env.clock.currentTimeMillis() < reshuffleTime
+                && (env.config.turnTimeoutMillis > 0 || setsOnTable.count() > 0)) {
             sleepUntilWokenOrTimeout();
             updateTimerDisplay(false);
             removeCardsFromTable();
@@ -135,11 +221,11 @@ public class Dealer implements Runnable {
      */
     public void terminate() {
         for (int i = playersThreads.length - 1; i >= 0; i--) {
-            synchronized (players[i]) {
-                players[i].notify();
-            }
-            players[i].setPlay(true);
             players[i].terminate();
+            players[i].resume();
+            // the room can be closed before the dealer started the players
+            if (playersThreads[i] == null)
+                continue;
             playersThreads[i].interrupt();
             try {
                 playersThreads[i].join();
@@ -147,6 +233,7 @@ public class Dealer implements Runnable {
             }
         }
         this.terminate = true;
+        wakeUp();
     }
 
     /**
@@ -155,58 +242,56 @@ public class Dealer implements Runnable {
      * @return true iff the game should be finished.
      */
     private boolean shouldFinish() {
-        return terminate || env.util.findSets(deck, 1).size() == 0;
+        return terminate || setsInPlay.count() == 0;
     }
 
     /**
      * Checks cards should be removed from the table and removes them.
      */
     private void removeCardsFromTable() {
-        synchronized (table) {
-            List<Integer> removeSets = new LinkedList<Integer>();
-
-            // no sets to check by the dealer, so exit
-            if (legalSetOrderList.isEmpty())
-                return;
+        table.lock.lock();
+        try {
+            // taking all the claims submitted so far, and indexing them by their cards
+            List<Claim> batch = new ArrayList<Claim>();
+            Claim claim;
+            while ((claim = claims.poll()) != null) {
+                batch.add(claim);
+                for (int i = 0; i < claim.size(); i++)
+                    claimsByCard.get(claim.card(i)).add(claim);
+            }
 
-            int[] cardTokens = new int[0];
-            List<Integer> set;
-            int playerIdSet = 0;
-            // checking all the sets, by fifo order, if they are legal. If they are legal
+            // checking all the claims, by fifo order, if they are legal. If they are legal
             // handle them accordingly
-            for (int i = 0; i < legalSetCheckList.size(); i++) {
-                set = legalSetCheckList.get(i);
-                playerIdSet = legalSetOrderList.get(i);
-                // set is smaller than 3. Its irrelevant so we continue to the next set
-                if (set.size() < env.config.featureSize) {
-                    removeSets.add(legalSetOrderList.get(i)); // only 2 cards? we will remove this set after this
-                                                              // iteration
+            for (Claim current : batch) {
+                int playerIdSet = current.player;
+                int[] cardTokens = current.cards();
+                // the claim is decided right below, without waiting for anything
+                LongConsumer listener = verdictListener;
+                if (listener != null)
+                    listener.accept(System.nanoTime() - current.submitTime);
+
+                // some of the cards were taken by an earlier set. Its irrelevant so we continue to the next claim
+                if (invalidClaims.contains(current) || !isClaimCurrent(current)) {
+                    players[playerIdSet].resume();
                     continue;
-                } else {
-                        cardTokens = Arrays.stream(set.toArray(new Integer[set.size()])).mapToInt(Integer::intValue)
-                                .toArray();
-                    ;
                 }
                 // Checking if its a legal set
                 if (env.util.testSet(cardTokens)) {
-                    for (int card : cardTokens) {
-                        if (table.cardToSlot[card] != null)
-                            env.ui.removeTokens(table.cardToSlot[card]);
-                        for (Player p : players) {
-                            if (p.getPlayerTokensCardsList().contains(card))
-                                p.getPlayerTokensCardsList().remove(p.getPlayerTokensCardsList().indexOf(card));
-                        }
-                        // Its a legal set, we need to remove similar cards from future sets
-                        for (int j = 0; j < legalSetCheckList.size(); j++) {
-                            if (legalSetCheckList.get(j).contains(card)) {
-                                legalSetCheckList.get(j).remove(legalSetCheckList.get(j).indexOf(card));
-                            }
-                        }
-                        table.removeCard(table.cardToSlot[card]);
+                    int[] slots = new int[cardTokens.length];
+                    for (int i = 0; i < cardTokens.length; i++) {
+                        int card = cardTokens[i];
+                        slots[i] = table.cardToSlot[card];
+                        // only the players with tokens on the card lose them
+                        table.removeTokens(slots[i]);
+                        // only the claims with the card are not relevant anymore
+                        invalidClaims.addAll(claimsByCard.get(card));
+                        setsInPlay.remove(card);
+                        setsOnTable.remove(card);
                     }
+                    table.removeCards(slots);
                     playerIdWithSet = playerIdSet;
                     players[playerIdSet].point();
-                    env.ui.setCountdown(env.config.turnTimeoutMillis, false); // Fixes the 'not showing 60 on reset bug'
+                    resetTimerDisplay(); // Fixes the 'not showing 60 on reset bug'
 
                     // usually, when placing cards we unblock the player and reset time, because
                     // there no more
@@ -214,51 +299,48 @@ public class Dealer implements Runnable {
                     if ((deck.size() + table.countCards()) < 12) {
                         // All the cards on the table, so we unblock the player with the specific set
                         // found
-                        players[playerIdWithSet].setPlay(true);
-                        synchronized (players[playerIdWithSet]) {
-                            players[playerIdWithSet].notify();
-                        }
+                        players[playerIdWithSet].resume();
                         startTime = 0;
-                        // System.out.println("Releasing all players from blocked, because all cards on
-                        // the table (Last cards)");
-                    }
-                    removeSets.add(playerIdSet); // legal set, we will remove this set after this iteration
-
-                    for (int remove : removeSets) {
-                        legalSetCheckList.remove(legalSetOrderList.indexOf(remove));
-                        legalSetOrderList.remove(legalSetOrderList.indexOf(remove));
                     }
-                    return;
                 } else {
-                    players[playerIdSet].getPlayerTokensCardsList().clear();
                     players[playerIdSet].penalty();
                     // We release the player, so we can define a different block based on time when
                     // called penalty. (On the start of the player main thread)
-                    players[playerIdSet].setPlay(true);
-                    synchronized (players[playerIdSet]) {
-                        players[playerIdSet].notify();
-                        players[playerIdSet].setPlay(true);
-                    }
-                    for (int card : set) {
-                        if (table.cardToSlot[card] != null)
-                            table.removeToken(playerIdSet, table.cardToSlot[card]);
+                    players[playerIdSet].resume();
+                    for (int card : cardTokens) {
+                        table.removeToken(playerIdSet, table.cardToSlot[card]);
                     }
-                    removeSets.add(playerIdSet); // we gave him penalty, so we remove this set after this
-                                                 // iteration
-                    // System.out.println("Player " + legalSetOrderList.get(i)
-                    // + " will be released to recieve penalty instantly after.");
                 }
             }
-            // clearing the list used tokens
-            legalSetCheckList.clear();
-            legalSetOrderList.clear();
+
+            // the batch is done, so its claims are removed from the index
+            for (Claim checked : batch)
+                for (int i = 0; i < checked.size(); i++)
+                    claimsByCard.get(checked.card(i)).clear();
+            invalidClaims.clear();
+        } finally {
+            table.lock.unlock();
         }
     }
 
+    /**
+     * Checks if a claim still describes the table: all its cards are still on the table (a set accepted in an
+     * earlier batch may have taken some of them).
+     *
+     * @param claim - the claim to check.
+     * @return true iff the claim should be checked.
+     */
+    private boolean isClaimCurrent(Claim claim) {
+        for (int i = 0; i < claim.size(); i++)
+            if (table.cardToSlot[claim.card(i)] == null)
+                return false;
+        return claim.size() == env.config.featureSize;
+    }
+
     /**
      * Check if any cards can be removed from the deck and placed on the table.
      */
-    private void placeCardsOnTable() {
+    void placeCardsOnTable() {
         int cardsNeeded = env.config.tableSize - table.countCards();
         int cardsInGame = deck.size() + table.countCards();
 
@@ -275,73 +357,175 @@ public class Dealer implements Runnable {
         List<Integer> positions = new LinkedList<Integer>();
         for (int i = 0; i < env.config.tableSize; i++)
             positions.add(i);
-        synchronized (table) {
-            // adding the needed cards
+        table.lock.lock();
+        try {
+            // choosing the needed cards, they are all placed at once
+            int[] cards = new int[env.config.tableSize];
+            int[] slots = new int[env.config.tableSize];
+            int placed = 0;
             for (int i = 0; i < env.config.tableSize; i++) {
                 if (deck.size() > 0) {
-                    int randomPosition = ThreadLocalRandom.current().nextInt(0, positions.size()); // Random position
+                    int randomPosition = random.nextInt(positions.size()); // Random position
                     // Game started, we need to put all the 12 cards on random places
                     if (startTime == Long.MAX_VALUE) {
-                        Collections.shuffle(deck);
-                        int cardId = deck.remove(0);
-                        table.placeCard(cardId, positions.remove(randomPosition));
+                        cards[placed] = deck.drawRandom();
+                        slots[placed++] = positions.remove(randomPosition);
                     }
                     // adding cards to missing places after a point was made
                     else if (table.slotToCard[i] == null) {
-                        int cardId = deck.remove(0);
-                        table.placeCard(cardId, i);
+                        cards[placed] = deck.drawRandom();
+                        slots[placed++] = i;
                     }
                 }
             }
+            for (int i = 0; i < placed; i++)
+                setsOnTable.add(cards[i]);
+            // with no countdown there must always be a set on the table, so a drawn card is swapped for one that
+            // completes a set
+            if (env.config.turnTimeoutMillis <= 0 && placed > 0 && setsOnTable.count() == 0)
+                cards[placed - 1] = swapForCompletion(cards[placed - 1]);
+            table.placeCards(Arrays.copyOf(cards, placed), Arrays.copyOf(slots, placed));
+        } finally {
+            table.lock.unlock();
         }
         // After giving a point we need to restart the timer, so we make sure it will
         // reset it next rotation by doing this
         startTime = 0; // reset timer
 
         // All the cards on the table, so we can allow the players to play
-        for (Player p : players) {
-            p.setPlay(true);
-            synchronized (p) {
-                p.notify();
-            }
-        }
+        for (Player p : players)
+            p.resume();
         // System.out.println("Releasing all players from blocked, because all cards on
         // the table");
     }
 
     /**
-     * Sleep for a fixed amount of time or until the thread is awakened for some
-     * purpose.
+     * Swaps a card that was just drawn for a card from the deck that forms a legal set with the other cards on the
+     * table, if there is one. Only the combinations of the table cards are checked, so it costs by the table size and
+     * not by the deck size.
+     *
+     * @param card - the card drawn (already counted in setsOnTable).
+     * @return - the card to place instead (the same card if no card in the deck completes a set).
      */
-    private void sleepUntilWokenOrTimeout() {
+    private int swapForCompletion(int card) {
+        // a set can only be completed from the rest of its cards when the features have at least 3 values
+        if (env.config.featureSize < 3)
+            return card;
+        setsOnTable.remove(card);
+        int completion = completionInDeck(0, 0);
+        if (completion == -1) {
+            setsOnTable.add(card);
+            return card;
+        }
+        deck.draw(completion);
+        deck.add(card);
+        setsOnTable.add(completion);
+        return completion;
+    }
 
-        // sleep every second (almost), if last 5 seconds dont sleep
-        if (reshuffleTime - System.currentTimeMillis() > env.config.turnTimeoutWarningMillis) {
-            try {
-                Thread.sleep(800);
-            } catch (InterruptedException e) {
-            }
+    /**
+     * Picks featureSize - 1 of the table cards (by increasing index in setsOnTable) and looks for the card completing
+     * them in the deck.
+     *
+     * @return - a card in the deck that forms a legal set with featureSize - 1 table cards, or -1 if there is none.
+     */
+    private int completionInDeck(int depth, int from) {
+        if (depth == completionPartial.length) {
+            int completion = env.util.completeSet(completionPartial);
+            return completion != -1 && deck.contains(completion) ? completion : -1;
+        }
+        for (int i = from; i < setsOnTable.size(); i++) {
+            completionPartial[depth] = setsOnTable.get(i);
+            int completion = completionInDeck(depth + 1, i + 1);
+            if (completion != -1)
+                return completion;
         }
+        return -1;
+    }
+
+    /**
+     * Sleep until the next thing the dealer has to do, or until the thread is awakened by a claim or by terminate.
+     */
+    void sleepUntilWokenOrTimeout() {
+        long now = env.clock.currentTimeMillis();
+        long deadline = nextDeadline(now);
+        // parking can return early for no reason, so check again until there is a job to do
+        while (!terminate && claims.isEmpty() && now < deadline) {
+            env.clock.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(deadline - now));
+            now = env.clock.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Calculates when the dealer has to wake up next: the earliest of the next countdown display change, the hint
+     * time and the reshuffle time (the freezes of the players have timers of their own).
+     *
+     * @param now - the current time.
+     * @return the time the dealer needs to wake up.
+     */
+    long nextDeadline(long now) {
+        // the round timer needs to be reset, do it right away
+        if (startTime == Long.MAX_VALUE || startTime == 0)
+            return now;
+
+        long remaining = reshuffleTime - now;
+        long deadline = reshuffleTime;
+        // the elapsed timer shows whole seconds, and with no timer nothing changes on its own
+        if (env.config.turnTimeoutMillis == 0)
+            deadline = now + 1000 - (now - startTime) % 1000;
+        else if (env.config.turnTimeoutMillis < 0)
+            deadline = Long.MAX_VALUE;
+        // the countdown shows whole seconds, but the warning shows milliseconds so it is updated at the refresh rate
+        else if (remaining > env.config.turnTimeoutWarningMillis)
+            deadline = Math.min(now + untilNextSecond(remaining), reshuffleTime - env.config.turnTimeoutWarningMillis);
+        else
+            deadline = Math.min(now + env.config.turnTimeoutWarningRefreshMillis, reshuffleTime);
+
+        if (env.config.hints && !showHint)
+            deadline = Math.min(deadline, reshuffleTime - TIME_FOR_HINT);
+        return deadline;
+    }
+
+    /**
+     * @param millis - a remaining time.
+     * @return the time until the remaining time shows one second less.
+     */
+    static long untilNextSecond(long millis) {
+        if (millis <= 0)
+            return 0;
+        return millis % 1000 == 0 ? 1000 : millis % 1000;
+    }
+
+    /**
+     * Shows the timer of a round that just started: the full countdown, or no time elapsed.
+     */
+    private void resetTimerDisplay() {
+        if (env.config.turnTimeoutMillis > 0)
+            env.ui.setCountdown(env.config.turnTimeoutMillis, false);
+        else if (env.config.turnTimeoutMillis == 0)
+            env.ui.setElapsed(0);
     }
 
     /**
      * Reset and/or update the countdown and the countdown display.
      */
-    private void updateTimerDisplay(boolean reset) {
+    void updateTimerDisplay(boolean reset) {
 
-        long timeNow = System.currentTimeMillis();
-        final int timeForHint = 15000;
+        long timeNow = env.clock.currentTimeMillis();
 
         // start time is on default time, or 60 seconds passed, it will trigger the game
         // to reset the round here
 
         if (startTime == Long.MAX_VALUE || startTime == 0) {
-            reshuffleTime = env.config.turnTimeoutMillis + System.currentTimeMillis();
+            // with no countdown there is no reshuffle time, the round ends when the table has no set
+            reshuffleTime = env.config.turnTimeoutMillis > 0
+                    ? env.config.turnTimeoutMillis + env.clock.currentTimeMillis()
+                    : Long.MAX_VALUE;
             startTime = timeNow;
             this.showHint = false;
         }
         // time ended, block players
-        else if (System.currentTimeMillis() >= reshuffleTime) {
+        else if (env.clock.currentTimeMillis() >= reshuffleTime) {
             for (Player p : players) {
                 p.setPlay(false);
                 // System.out.println("Player " + p.getId() + " is blocked, because time
@@ -351,39 +535,26 @@ public class Dealer implements Runnable {
 
         // deal with hints
         if (env.config.hints == true && showHint == false
-                && (reshuffleTime - System.currentTimeMillis()) < timeForHint) {
+                && (reshuffleTime - env.clock.currentTimeMillis()) < TIME_FOR_HINT) {
             table.hints();
             this.showHint = true;
         }
 
+        // no countdown: the time since the last reset is shown (0), or nothing at all (-1)
+        if (env.config.turnTimeoutMillis <= 0) {
+            if (env.config.turnTimeoutMillis == 0)
+                env.ui.setElapsed(timeNow - startTime);
+        }
         // still not 5 seconds left, so we display the left time without warning. Else
         // otherwise
-        if (reshuffleTime - System.currentTimeMillis() > env.config.turnTimeoutWarningMillis)
-            env.ui.setCountdown(reshuffleTime - System.currentTimeMillis(), false);
+        else if (reshuffleTime - env.clock.currentTimeMillis() > env.config.turnTimeoutWarningMillis)
+            env.ui.setCountdown(reshuffleTime - env.clock.currentTimeMillis(), false);
         else {
-            if (reshuffleTime - System.currentTimeMillis() > 0)
-                env.ui.setCountdown(reshuffleTime - System.currentTimeMillis(), true);
+            if (reshuffleTime - env.clock.currentTimeMillis() > 0)
+                env.ui.setCountdown(reshuffleTime - env.clock.currentTimeMillis(), true);
             else
                 env.ui.setCountdown(0, false);
         }
-
-        if (env.config.pointFreezeMillis == 0 && env.config.penaltyFreezeMillis == 0)
-            return;
-        // passing all the players and checking if they are freezed, if so, update their
-        // freeze time until its finished
-        for (Player p : players) {
-            // checking if he is in penalty (penaltyTime == 0 means its not)
-            if (p.getPenaltyTime() != 0) {
-                if (System.currentTimeMillis() < p.getPenaltyOverallTime())
-                    env.ui.setFreeze(p.getId(), p.getPenaltyOverallTime() - System.currentTimeMillis() + 1000);
-                else {
-                    // not in penalty anymore, so we set to 0
-                    p.setPenaltyTime(0);
-                    // remove the freeze message on the player's name
-                    env.ui.setFreeze(p.getId(), 0);
-                }
-            }
-        }
     }
 
     /**
@@ -393,15 +564,15 @@ public class Dealer implements Runnable {
         boolean lastCards = false;
         List<Integer> positions = new LinkedList<Integer>();
         int cardsLeft = table.countCards();
-        env.ui.removeTokens();
         for (int i = 0; i < cardsLeft; i++)
             positions.add(i);
+        // block the players before the table is swept. the timer does it when the time is up, but with no countdown
+        // the round ends because no set is left
+        for (Player p : players)
+            p.setPlay(false);
         // reset player vars
         for (Player p : players)
             p.resetAll();
-        // reset dealer's lists
-        legalSetCheckList.clear();
-        legalSetOrderList.clear();
         // reset hint value
         showHint = false;
         // adding back to the deck the left visible cards
@@ -411,12 +582,18 @@ public class Dealer implements Runnable {
         }
 
         // removing cards from grid
-        synchronized (table) {
+        table.lock.lock();
+        try {
+            // reset dealer's claims. players submit claims under the lock, so none is left for the next deal
+            claims.clear();
+            // choosing the order the cards are removed in, they are all removed at once
+            int[] slots = new int[cardsLeft];
+            int removed = 0;
             for (int i = 0; i < cardsLeft; i++) {
-                int randomPosition = ThreadLocalRandom.current().nextInt(0, positions.size()); // Random position
+                int randomPosition = random.nextInt(positions.size()); // Random position
                 // all cards are here, so remove them randomly
                 if (cardsLeft == 12)
-                    table.removeCard(positions.get(randomPosition));
+                    slots[removed++] = positions.get(randomPosition);
                 // we don't have 12 cards, means we are at the end of the game so we will deal
                 // it after the loop
                 else {
@@ -429,13 +606,17 @@ public class Dealer implements Runnable {
             if (lastCards) {
                 for (int i = 0; i < table.slotToCard.length; i++) {
                     if (table.slotToCard[i] != null)
-                        table.removeCard(i);
+                        slots[removed++] = i;
                 }
             }
-            // remove all tokens
-            env.ui.removeTokens();
+            table.removeCards(Arrays.copyOf(slots, removed));
+            setsOnTable.clear();
+            // remove all tokens, under the lock so a player placing a token does not see the masks half cleared
+            table.removeAllTokens();
 
             startTime = Long.MAX_VALUE;
+        } finally {
+            table.lock.unlock();
         }
     }
 
@@ -0,0 +1,101 @@
+package bguspl.set.ex;
+
+import java.util.Random;
+
+/**
+ * This class holds the cards left in the dealer's deck as a pile of primitive card ids (a {@link CardSet}).
+ * Drawing picks a random card and swaps the last card into its place (one step of a Fisher-Yates shuffle), so the
+ * pile never needs to be shuffled as a whole.
+ * The cards are drawn by the pile's own random number generator, so a seeded generator draws the same cards every run.
+ *
+ * @inv 0 <= size() <= capacity
+ */
+public class DrawPile {
+
+    /**
+     * The cards in the pile.
+     */
+    private final CardSet cards;
+
+    /**
+     * Chooses the cards drawn.
+     */
+    private final Random random;
+
+    /**
+     * The class constructor.
+     *
+     * @param capacity - the maximum number of cards in the pile (usually config.deckSize).
+     * @param random   - the random number generator that chooses the cards drawn.
+     */
+    public DrawPile(int capacity, Random random) {
+        this.cards = new CardSet(capacity);
+        this.random = random;
+    }
+
+    /**
+     * Puts a card back into the pile.
+     *
+     * @param card - the card id.
+     * @post - size() == @pre(size()) + 1
+     */
+    public void add(int card) {
+        cards.add(card);
+    }
+
+    /**
+     * Draws a random card from the pile.
+     *
+     * @return - the id of the card drawn.
+     * @pre - size() > 0
+     * @post - size() == @pre(size()) - 1
+     */
+    public int drawRandom() {
+        int card = cards.get(random.nextInt(cards.size()));
+        draw(card);
+        return card;
+    }
+
+    /**
+     * Draws a specific card from the pile.
+     *
+     * @param card - the id of the card to draw.
+     * @pre - contains(card)
+     * @post - size() == @pre(size()) - 1
+     */
+    public void draw(int card) {
+        cards.remove(card);
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - true iff the card is in the pile.
+     */
+    public boolean contains(int card) {
+        return cards.contains(card);
+    }
+
+    /**
+     * @return - the number of cards in the pile.
+     */
+    public int size() {
+        return cards.size();
+    }
+
+    /**
+     * @return - true iff there are no cards left in the pile.
+     */
+    public boolean isEmpty() {
+        return cards.isEmpty();
+    }
+
+    /**
+     * Returns a card from the pile without drawing it, for iterating over the pile with no allocation.
+     *
+     * @param index - the index of the card (between 0 and size() - 1).
+     * @return - the id of the card.
+     */
+    public int get(int index) {
+        return cards.get(index);
+    }
+}
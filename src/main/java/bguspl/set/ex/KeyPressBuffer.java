@@ -0,0 +1,111 @@
+package bguspl.set.ex;
+
+/**
+ * A bounded queue of the slots a player pressed, with no locks: a single thread adds presses (the keyboard, or the
+ * player's AI) and a single thread takes them (the player). Each side writes only its own index, and reads the other
+ * side's index to see how many presses there are.
+ * Any thread may clear the presses made so far (see clear), which the taking side drops.
+ */
+public class KeyPressBuffer {
+
+    private final int[] slots;
+
+    /**
+     * The number of presses taken so far (written only by the taking thread).
+     */
+    private volatile long head;
+
+    /**
+     * The number of presses added so far (written only by the adding thread).
+     */
+    private volatile long tail;
+
+    /**
+     * The presses before this one were cleared, and are dropped by the taking thread.
+     */
+    private volatile long clearedUpTo;
+
+    /**
+     * The class constructor.
+     *
+     * @param capacity - the maximum number of presses waiting to be taken.
+     */
+    public KeyPressBuffer(int capacity) {
+        this.slots = new int[capacity];
+    }
+
+    /**
+     * Adds a press (called only by the adding thread).
+     *
+     * @param slot - the slot pressed.
+     * @return - true iff the press was added, false if the buffer is full.
+     */
+    public boolean offer(int slot) {
+        long t = tail;
+        // the cleared presses do not take places
+        if (t - Math.max(head, clearedUpTo) == slots.length)
+            return false;
+        slots[(int) (t % slots.length)] = slot;
+        // publishes the slot to the taking thread
+        tail = t + 1;
+        return true;
+    }
+
+    /**
+     * Takes the oldest press (called only by the taking thread).
+     *
+     * @return - the slot pressed, or -1 if there are no presses.
+     */
+    public int poll() {
+        while (true) {
+            long h = Math.max(head, clearedUpTo);
+            if (h == tail) {
+                head = h;
+                return -1;
+            }
+            int slot = slots[(int) (h % slots.length)];
+            // the press was cleared while it was read, so its place may already hold a newer press
+            if (clearedUpTo > h)
+                continue;
+            // frees the place of the press for the adding thread
+            head = h + 1;
+            return slot;
+        }
+    }
+
+    /**
+     * Drops the presses made so far (may be called by any thread). Their places are free right away.
+     */
+    public void clear() {
+        clearedUpTo = tail;
+    }
+
+    /**
+     * @return - true iff there are no presses waiting to be taken.
+     */
+    public boolean isEmpty() {
+        return Math.max(head, clearedUpTo) == tail;
+    }
+
+    /**
+     * @return - the number of presses that can be added before the buffer is full.
+     */
+    public int remainingCapacity() {
+        return slots.length - (int) (tail - Math.max(head, clearedUpTo));
+    }
+
+    /**
+     * Copies the presses waiting to be taken, oldest first (for the adding thread, which knows no press is added
+     * while it copies).
+     *
+     * @return - the slots pressed.
+     */
+    public int[] toArray() {
+        long t = tail;
+        long h = Math.max(head, clearedUpTo);
+        int[] pressed = new int[(int) (t - h)];
+        for (int i = 0; i < pressed.length; i++)
+            pressed[i] = slots[(int) ((h + i) % slots.length)];
+        return pressed;
+    }
+}
@@ -1,8 +1,11 @@
 package bguspl.set.ex;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import bguspl.set.Env;
 
@@ -18,13 +21,15 @@ public class Player implements Runnable {
      * Vars we added
      */
     private Dealer dealer; // getting the dealer instance
-    private List<Integer> playerTokensCardsList; // list with all of the player token on table
-    private List<Integer> playerActionsList; // list of all keyboard actions the player trying to register
-    private long penaltyTime; // The amount of time the player needs to be in penalty (usually 1/3 seconds)
-    private long penaltyOverallTime; // The current time + penalty time to know how long the player needs to be in
-                                     // penalty
+    private final KeyPressBuffer keyPresses; // the slots pressed and waiting to be handled (at most featureSize)
+    private volatile long penaltyTime; // The amount of time the player needs to be in penalty (usually 1/3 seconds)
+    private volatile long penaltyOverallTime; // The current time + penalty time to know how long the player needs to
+                                              // be in penalty
 
-    private boolean play; // if the specific player can play or not. (false means it will get blocked)
+    private volatile boolean play; // if the specific player can play or not. (false means it will get blocked)
+    private final Strategy strategy; // the AI's choices of key presses (null for a human player)
+    private long pressDelay; // the time the AI takes before its chosen key press
+    private int pendingPress = -1; // the slot the AI waits to press, when run by the pooled engine (-1 for none)
 
     /**
      * The game environment object.
@@ -44,7 +49,7 @@ public class Player implements Runnable {
     /**
      * The thread representing the current player.
      */
-    private Thread playerThread;
+    private volatile Thread playerThread;
 
     /**
      * The thread of the AI (computer) player (an additional thread used to generate
@@ -52,6 +57,43 @@ public class Player implements Runnable {
      */
     private Thread aiThread;
 
+    /**
+     * The states of a player run by the pooled engine (see Env.playerPool).
+     */
+    enum State {
+        IDLE, // waiting for the dealer to deal the cards
+        COLLECTING, // placing and removing tokens
+        CLAIM_PENDING, // waiting for the dealer to check its set
+        FROZEN // waiting for its point or penalty freeze to end
+    }
+
+    /**
+     * The state of the player, when run by the pooled engine (read and written only by its steps, which never
+     * overlap).
+     */
+    private State state;
+
+    /**
+     * The freeze timers of the players of all the rooms. A frozen player costs a timer, and no thread sleeps for it.
+     */
+    private static final TimerWheel freezeTimers = new TimerWheel("freeze-timers", 10, TimeUnit.MILLISECONDS, 512);
+
+    /**
+     * The next update of the player's freeze display, or the end of its freeze (null if it was not frozen yet).
+     */
+    private volatile TimerWheel.Timeout freezeTimer;
+
+    /**
+     * The number of requests to run the player's step since it last started (the player runs on the pool iff
+     * positive, so its steps never overlap).
+     */
+    private final AtomicInteger pendingSteps;
+
+    /**
+     * True iff the AI of the player waits to be woken up, when run by the pooled engine.
+     */
+    private final AtomicBoolean artificialIntelligenceWaiting;
+
     /**
      * True iff the player is human (not a computer player).
      */
@@ -87,9 +129,13 @@ public class Player implements Runnable {
         this.dealer = dealer;
         this.penaltyTime = 0; // default time for non penalty
         this.penaltyOverallTime = 0;
-        this.playerTokensCardsList = new LinkedList<Integer>();
-        this.playerActionsList = new LinkedList<Integer>();
+        this.keyPresses = new KeyPressBuffer(env.config.featureSize);
         this.play = false;
+        // the AI's random choices are seeded by the env
+        this.strategy = human ? null : Strategies.create(env, id, env.newRandom(id + 1));
+        this.state = State.IDLE;
+        this.pendingSteps = new AtomicInteger();
+        this.artificialIntelligenceWaiting = new AtomicBoolean();
     }
 
     /*
@@ -104,32 +150,28 @@ public class Player implements Runnable {
         return this.human;
     }
 
-    public List<Integer> getPlayerTokensCardsList() {
-        return this.playerTokensCardsList;
-    }
-
-    public List<Integer> getPlayerActionsList() {
-        return this.playerActionsList;
+    public KeyPressBuffer getKeyPresses() {
+        return this.keyPresses;
     }
 
     public long getPenaltyTime() {
         return penaltyTime;
     }
 
-    public void setPenaltyTime(long time) {
-        this.penaltyTime = time;
-    }
-
-    public long getPenaltyOverallTime() {
-        return penaltyOverallTime;
+    State getState() {
+        return state;
     }
 
     // reset all the values to the default values (usually for a new round)
     public void resetAll() {
-        this.penaltyTime = 0; // no penalty time
+        // a freeze ends with the round. an update of the freeze that is running right now ends it, as no time is left
         this.penaltyOverallTime = 0;
-        this.playerTokensCardsList = new LinkedList<Integer>();
-        this.playerActionsList = new LinkedList<Integer>();
+        TimerWheel.Timeout timer = freezeTimer;
+        if (timer != null && timer.cancel())
+            env.ui.setFreeze(this.id, 0);
+        this.penaltyTime = 0; // no penalty time
+        // the tokens are removed from the table by the dealer. a blocked AI can press keys again
+        this.keyPresses.clear();
     }
 
     public boolean getPlay() {
@@ -140,83 +182,160 @@ public class Player implements Runnable {
         this.play = play;
     }
 
-    // getting an unused slot to generate a random key in
-    public int getUnusedSlot() {
-        List<Integer> unusedSlots = new LinkedList<Integer>();
-        for (Integer slot : table.cardToSlot)
-            if (slot != null // has a value
-                    && !playerActionsList.contains(playerActionsList.indexOf(table.slotToCard[slot])) // not in actions
-                    && !playerTokensCardsList.contains(playerTokensCardsList.indexOf(table.slotToCard[slot]))) // doesnt
-                                                                                                               // have a
-                                                                                                               // token
-                unusedSlots.add(slot);
+    /**
+     * Lets the player play again, and wakes up its thread if it is blocked waiting for the dealer.
+     */
+    public void resume() {
+        play = true;
+        wakeUp();
+        wakeUpArtificialIntelligence();
+    }
 
-        if (unusedSlots.isEmpty())
-            return -1;
+    /**
+     * Wakes up the player if it is waiting for something to do.
+     */
+    private void wakeUp() {
+        if (env.playerPool != null) {
+            scheduleStep();
+            return;
+        }
+        Thread thread = playerThread;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
 
-        int randomPosition = ThreadLocalRandom.current().nextInt(0, unusedSlots.size()); // Random slot
-        return unusedSlots.get(randomPosition);
+    /**
+     * Wakes up the AI of the player if it is waiting for the player to take key presses again, or for the table to
+     * change.
+     */
+    private void wakeUpArtificialIntelligence() {
+        if (human)
+            return;
+        if (env.playerPool != null) {
+            if (artificialIntelligenceWaiting.compareAndSet(true, false))
+                env.playerPool.execute(this::artificialIntelligenceStep);
+            return;
+        }
+        Thread thread = aiThread;
+        if (thread != null)
+            LockSupport.unpark(thread);
     }
 
-    // if needs to be in penalty, sleep for penalty duration and release afterwards
-    // the player
-    public void dealWithPenalties() {
-        if (penaltyTime != 0) {
-            try {
-                // System.out.println("Player " + this.id + " will now sleep for " +
-                // (penaltyTime / 1000) + " seconds.");
-                Thread.sleep(penaltyTime);
-            } catch (InterruptedException e) {
-            }
-            synchronized (this) {
-                this.notify();
-                this.play = true;
-                // System.out.println("Player " + this.id + " penalty is over, so we unblock
-                // him.");
-                env.ui.setFreeze(this.id, 0); // make sure its removed
+    /**
+     * Asks the strategy of the AI for its next key press (and the time to take before it, in pressDelay).
+     *
+     * @return - the slot to press, or -1 if there is nothing to press until the table or the player changes.
+     */
+    int chooseKeyPress() {
+        table.lock.lock();
+        try {
+            // the cards with tokens once the key presses so far are handled (a press on a card with a token removes it)
+            List<Integer> marked = new ArrayList<Integer>();
+            for (int card : table.tokenCards(id))
+                marked.add(card);
+            for (int slot : keyPresses.toArray()) {
+                Integer card = table.slotToCard[slot];
+                if (card != null && !marked.remove(card))
+                    marked.add(card);
             }
-            // define that the players doesn't have penalty anymore
-            penaltyTime = 0;
+            int slot = strategy.nextSlot(table, marked);
+            pressDelay = strategy.delayMillis();
+            return slot;
+        } finally {
+            table.lock.unlock();
         }
     }
 
-    // deal with token placement requests by the player
-    public void dealWithPlayerActions() {
-        while (!playerActionsList.isEmpty()) {
-            // checking if to remove token from the list and table
-            synchronized (table) {
-                if (playerActionsList.isEmpty())
+    /**
+     * Freezes the player (called by the dealer). The player is released by its freeze timer, which also updates the
+     * freeze display every second.
+     *
+     * @param millis - the duration of the freeze (0 for none).
+     */
+    private void freeze(long millis) {
+        env.ui.setFreeze(this.id, millis);
+        penaltyOverallTime = env.clock.currentTimeMillis() + millis;
+        // telling the player that it has a penalty, keys are not pressed until the timer ends it
+        penaltyTime = millis;
+        if (millis > 0)
+            scheduleFreezeUpdate();
+    }
+
+    /**
+     * Schedules the next update of the freeze display: when the time left reaches a whole second, or the freeze ends.
+     */
+    private void scheduleFreezeUpdate() {
+        long remaining = Math.max(0, penaltyOverallTime - env.clock.currentTimeMillis());
+        long delay = remaining % 1000 == 0 ? Math.min(remaining, 1000) : remaining % 1000;
+        freezeTimer = freezeTimers.schedule(this::updateFreeze,
+                env.clock.toRealNanos(TimeUnit.MILLISECONDS.toNanos(delay)));
+    }
+
+    /**
+     * Shows the time left of the freeze (in whole seconds, rounded up), or ends the freeze if it is over.
+     * Runs on the freeze timers' thread.
+     */
+    private void updateFreeze() {
+        long remaining = penaltyOverallTime - env.clock.currentTimeMillis();
+        if (remaining > 0) {
+            env.ui.setFreeze(this.id, (remaining + 999) / 1000 * 1000);
+            scheduleFreezeUpdate();
+        } else {
+            endPenalty();
+        }
+    }
+
+    // release the player after its penalty is over
+    private void endPenalty() {
+        env.ui.setFreeze(this.id, 0); // make sure its removed
+        // define that the players doesn't have penalty anymore
+        penaltyTime = 0;
+        wakeUp();
+        wakeUpArtificialIntelligence();
+    }
+
+    /**
+     * Deal with token placement requests by the player.
+     *
+     * @return - true iff the player claimed a set (and waits for the dealer's answer).
+     */
+    public boolean dealWithPlayerActions() {
+        boolean claimed = false;
+        while (!claimed && !keyPresses.isEmpty()) {
+            // checking if to remove token from the table
+            table.lock.lock();
+            try {
+                // the dealer blocked the player to sweep the table, the presses left are cleared with it
+                if (!play)
                     break;
-                int currentCard = playerActionsList.remove(0);
-                if (table.cardToSlot[currentCard] != null) {
-                    if (playerTokensCardsList.contains(currentCard)) {
-                            playerTokensCardsList.remove(playerTokensCardsList.indexOf(currentCard));
-                        table.removeToken(this.id, table.cardToSlot[currentCard]);
-                    }
-                    // checking if to add to the list and table
-                    else {
-                        if (playerTokensCardsList.size() < env.config.featureSize) {
-                            table.placeToken(this.id, table.cardToSlot[currentCard]);
-                            playerTokensCardsList.add(currentCard);
-                        }
-                    }
+                int slot = keyPresses.poll();
+                if (slot == -1)
+                    break;
+                if (table.slotToCard[slot] != null) {
+                    if (table.hasToken(this.id, slot))
+                        table.removeToken(this.id, slot);
+                    // checking if to add to the table
+                    else if (table.countTokens(this.id) < env.config.featureSize)
+                        table.placeToken(this.id, slot);
                 }
-            }
-            // if he has 3 tokens placed, we need to block the player and allow the dealer
-            // to deal with the set
-            synchronized (dealer) {
-                if (playerTokensCardsList.size() == env.config.featureSize) {
-                    Dealer.legalSetCheckList.add(new LinkedList<Integer>(playerTokensCardsList));
-                    Dealer.legalSetOrderList.add(this.id);
+                // if he has 3 tokens placed, we need to block the player and allow the dealer
+                // to deal with the set
+                if (table.countTokens(this.id) == env.config.featureSize) {
                     // player has 3 tokens, so we block him from putting more
                     this.play = false;
-                    // System.out.println("Player " + this.id + ", is blocked becuase he has 3
-                    // tokens");
-                    dealer.getDealerThread().interrupt();
-                    // System.out.println("We awake dealer, because there is a set.");
+                    claimed = true;
+                    // the dealer is woken up by the claim, because there is a set. submitted under the lock, so a
+                    // sweep of the table clears it with the other claims
+                    dealer.submitClaim(new Claim(this.id, table.tokenCards(this.id), System.nanoTime()));
+                    // the rest of the actions wait for the dealer's answer
                 }
+            } finally {
+                table.lock.unlock();
             }
         }
+        // the AI may be waiting for a slot with no token
+        wakeUpArtificialIntelligence();
+        return claimed;
     }
 
     /**
@@ -232,22 +351,17 @@ public class Player implements Runnable {
 
         // main player thread loop
         while (!terminate) {
-            // if shouldn't play, we will block the player's thread
-            while (!play) {
-                synchronized (this) {
-                    try {
-                        wait();
-                    } catch (InterruptedException e) {
-                    }
-                    ;
-                }
-            }
-            // if needs to be in penalty, sleep for penalty duration and release afterwards
-            // the player
-            dealWithPenalties();
+            // if shouldn't play, or is frozen, we will block the player's thread until the dealer or the freeze timer
+            // releases it (parking instead of waiting on the monitor, so a virtual thread does not hold its carrier)
+            while ((!play || penaltyTime != 0) && !terminate)
+                LockSupport.park(this);
 
             // deal with token placement requests by the player
             dealWithPlayerActions();
+
+            // nothing to do until a key is pressed or the dealer releases the player
+            if (play && penaltyTime == 0 && keyPresses.isEmpty() && !terminate)
+                LockSupport.park(this);
         }
         if (!human)
             try {
@@ -260,53 +374,167 @@ public class Player implements Runnable {
     /**
      * Creates an additional thread for an AI (computer) player. The main loop of
      * this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it
-     * is not full.
+     * key presses, chosen by the player's strategy. If the queue of key presses is full, the thread waits until it
+     * is not full. While the player is blocked, or the strategy has nothing to press,
+     * the thread parks until the player is released or takes a key press.
      */
     private void createArtificialIntelligence() {
-        // note: this is a very, very smart AI (!)
-        aiThread = new Thread(() -> {
+        aiThread = env.threadFactory.newThread(() -> {
             env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
-            int randomSlot;
             while (!terminate) {
-                randomSlot = getUnusedSlot();
-                if (randomSlot != -1)
-                    this.keyPressed(randomSlot);
+                // waits for the player to take a key press when the buffer is full
+                if (isBlocked() || keyPresses.remainingCapacity() == 0) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                int slot = chooseKeyPress();
+                if (slot == -1) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                if (pressDelay > 0) {
+                    // parked instead of sleeping, so terminate wakes the thread up right away
+                    long deadline = env.clock.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pressDelay);
+                    for (long left = deadline - env.clock.nanoTime(); left > 0 && !terminate;
+                         left = deadline - env.clock.nanoTime())
+                        env.clock.parkNanos(this, left);
+                    // the press is dropped if the player was blocked in the meantime
+                    if (isBlocked() || terminate)
+                        continue;
+                }
+                if (keyPresses.offer(slot))
+                    wakeUp();
             }
             env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
-        }, "computer-" + id);
+        });
+        aiThread.setName("computer-" + id);
         aiThread.start();
     }
 
+    /**
+     * Starts the player on the pooled engine instead of a thread of its own (see Env.playerPool). The player then
+     * runs a step whenever something it waits for happens: a key press, the dealer releasing it or its freeze ending.
+     */
+    public void startPooled() {
+        env.logger.info("player " + id + " starting on the player pool.");
+        if (!human)
+            env.playerPool.execute(this::artificialIntelligenceStep);
+        scheduleStep();
+    }
+
+    /**
+     * Asks the pool to run the player's step. Requests made while a step runs are merged into one more step.
+     */
+    private void scheduleStep() {
+        if (pendingSteps.getAndIncrement() == 0)
+            env.playerPool.execute(this::runSteps);
+    }
+
+    private void runSteps() {
+        int requests;
+        do {
+            requests = pendingSteps.get();
+            step();
+        } while (pendingSteps.addAndGet(-requests) != 0);
+    }
+
+    /**
+     * A single non blocking step of the player's state machine (the pooled counterpart of the player thread loop).
+     */
+    void step() {
+        if (terminate)
+            return;
+        switch (state) {
+            case IDLE:
+            case CLAIM_PENDING:
+                // the dealer releases the player after dealing, or with its answer (frozen for a point or a penalty)
+                if (!play)
+                    return;
+                state = penaltyTime != 0 ? State.FROZEN : State.COLLECTING;
+                break;
+            case FROZEN:
+                // the freeze timer runs the step again when the freeze is over
+                if (penaltyTime != 0)
+                    return;
+                state = play ? State.COLLECTING : State.IDLE;
+                break;
+            case COLLECTING:
+                // the dealer blocked the player (e.g. to sweep the table)
+                if (!play)
+                    state = State.IDLE;
+                break;
+        }
+        if (state == State.COLLECTING && dealWithPlayerActions())
+            state = State.CLAIM_PENDING;
+    }
+
+    /**
+     * A single key press of an AI (computer) player on the pooled engine. Runs again right after (or after the time
+     * the strategy takes before the press), by the order of the pool's queue, so the computer players share the
+     * workers with everyone else.
+     */
+    private void artificialIntelligenceStep() {
+        if (terminate)
+            return;
+        int slot = pendingPress;
+        pendingPress = -1;
+        // from here a wake up runs the step again, so one that comes while the step looks for a press is not lost
+        artificialIntelligenceWaiting.set(true);
+        // nothing to do while the player can not take key presses (a press it waited to make is dropped)
+        if (isBlocked() || keyPresses.remainingCapacity() == 0)
+            return;
+        boolean chosen = slot == -1;
+        if (chosen) {
+            slot = chooseKeyPress();
+            if (slot == -1)
+                return;
+        }
+        // a step run by a wake up in the meantime takes over
+        if (!artificialIntelligenceWaiting.compareAndSet(true, false))
+            return;
+        if (chosen && pressDelay > 0) {
+            pendingPress = slot;
+            env.playerPool.schedule(this::artificialIntelligenceStep,
+                    env.clock.toRealNanos(TimeUnit.MILLISECONDS.toNanos(pressDelay)), TimeUnit.NANOSECONDS);
+            return;
+        }
+        if (keyPresses.offer(slot))
+            wakeUp();
+        env.playerPool.execute(this::artificialIntelligenceStep);
+    }
+
+    /**
+     * Reads only volatile fields, so it is safe for the keyboard and the AI, and takes no lock.
+     *
+     * @return - true iff the player can not take key presses (e.g. waiting for the dealer or frozen).
+     */
+    private boolean isBlocked() {
+        return !play || penaltyTime != 0;
+    }
+
     /**
      * Called when the game should be terminated.
      */
     public void terminate() {
-        resetAll();
         terminate = true;
+        resetAll();
+        wakeUpArtificialIntelligence();
     }
 
     /**
-     * This method is called when a key is pressed.
+     * This method is called when a key is pressed. The key presses of a computer player come only from its AI, so
+     * the keyboard is ignored (the key press buffer takes presses from a single thread).
      *
      * @param slot - the slot corresponding to the key pressed.
      */
     public void keyPressed(int slot) {
-        // Checks if the thread is in WAIT or is SLEEPING, so we block it from creating
-        // new actions while its blocked (Thank you stackoverflow <3)
-        if ((dealer.getPlayersThreads()[this.id]).getState() == Thread.State.WAITING
-                || (dealer.getPlayersThreads()[this.id]).getState() == Thread.State.TIMED_WAITING)
+        if (!human || isBlocked())
             return;
 
-        // if we have 3 actions already, block it from adding more
-        if (playerActionsList.size() >= env.config.featureSize)
-        return;
-
-        synchronized (table) {
-            // adding new key action
-            if (table.slotToCard[slot] != null)
-                playerActionsList.add(table.slotToCard[slot]);
-        }
+        // adding new key action, if we have 3 actions already it is dropped (the keyboard can not wait).
+        // the card in the slot is read by the player when it handles the press, so pressing takes no lock
+        if (keyPresses.offer(slot))
+            wakeUp();
     }
 
     /**
@@ -316,24 +544,15 @@ public class Player implements Runnable {
      * @post - the player's score is updated in the ui.
      */
     public void point() {
-        int ignored = table.countCards(); // test code
         env.ui.setScore(id, ++score);
-        env.ui.setFreeze(this.id, env.config.pointFreezeMillis);
-        // telling the thread that the player has a penalty, will handle it on the
-        // player thread loop
-        penaltyTime = env.config.pointFreezeMillis;
-        penaltyOverallTime = System.currentTimeMillis() + env.config.pointFreezeMillis;
+        freeze(env.config.pointFreezeMillis);
     }
 
     /**
      * Penalize a player and perform other related actions.
      */
     public void penalty() {
-        env.ui.setFreeze(this.id, env.config.penaltyFreezeMillis);
-        // telling the thread that the player has a penalty, will handle it on the
-        // player thread loop
-        penaltyTime = env.config.penaltyFreezeMillis;
-        penaltyOverallTime = System.currentTimeMillis() + env.config.penaltyFreezeMillis;
+        freeze(env.config.penaltyFreezeMillis);
     }
 
     public int score() {
@@ -0,0 +1,52 @@
+package bguspl.set.ex;
+
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * A computer player that presses random slots with no token of its own, as fast as the player takes them.
+ */
+public class RandomStrategy implements Strategy {
+
+    private final Random random;
+
+    /**
+     * The class constructor.
+     *
+     * @param random - the source of the random choices.
+     */
+    public RandomStrategy(Random random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextSlot(Table table, Collection<Integer> marked) {
+        return randomSlot(table, marked, -1, random);
+    }
+
+    @Override
+    public long delayMillis() {
+        return 0;
+    }
+
+    /**
+     * Chooses a random slot with a card that is not marked.
+     *
+     * @param table   - the table.
+     * @param marked  - the cards that are not chosen.
+     * @param exclude - another card that is not chosen (-1 for none).
+     * @param random  - the source of the random choice.
+     * @return - the slot, or -1 if every card on the table is marked or excluded.
+     */
+    static int randomSlot(Table table, Collection<Integer> marked, int exclude, Random random) {
+        int candidates = 0;
+        int chosen = -1;
+        // reservoir sampling, so the slots are not collected to a list first
+        for (int slot = 0; slot < table.slotToCard.length; ++slot) {
+            Integer card = table.slotToCard[slot];
+            if (card != null && card != exclude && !marked.contains(card) && random.nextInt(++candidates) == 0)
+                chosen = slot;
+        }
+        return chosen;
+    }
+}
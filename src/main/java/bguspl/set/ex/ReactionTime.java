@@ -0,0 +1,85 @@
+package bguspl.set.ex;
+
+import java.util.Random;
+
+/**
+ * A distribution of the time it takes a computer player to react (e.g. to see a set on the table).
+ * Written in the configuration as the name of the distribution, then its mean and deviation in seconds
+ * (e.g. "LogNormal 1.5 0.5"). The samples are never negative.
+ */
+public class ReactionTime {
+
+    /**
+     * The supported distributions.
+     */
+    public enum Distribution {
+        CONSTANT, // always the mean
+        UNIFORM, // between mean - deviation and mean + deviation
+        NORMAL, // a bell around the mean
+        EXPONENTIAL, // memoryless, the deviation is the mean
+        LOG_NORMAL // skewed to the slow side, like the reaction times of people
+    }
+
+    private final Distribution distribution;
+    private final double meanMillis;
+    private final double deviationMillis;
+
+    /**
+     * The class constructor.
+     *
+     * @param distribution    - the distribution.
+     * @param meanMillis      - the mean reaction time in milliseconds.
+     * @param deviationMillis - the standard deviation in milliseconds (the half width of a uniform distribution).
+     */
+    public ReactionTime(Distribution distribution, double meanMillis, double deviationMillis) {
+        this.distribution = distribution;
+        this.meanMillis = meanMillis;
+        this.deviationMillis = deviationMillis;
+    }
+
+    /**
+     * Reads a reaction time from the configuration.
+     *
+     * @param words - the name of the distribution, its mean and its deviation (in seconds), missing words are taken
+     *              from the defaults.
+     * @param defaults - the reaction time of missing words.
+     * @return - the reaction time.
+     * @throws IllegalArgumentException - if a word is not a distribution or a number.
+     */
+    public static ReactionTime parse(String[] words, ReactionTime defaults) {
+        Distribution distribution = words.length > 0
+                ? Distribution.valueOf(words[0].replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase())
+                : defaults.distribution;
+        double mean = words.length > 1 ? Double.parseDouble(words[1]) * 1000.0 : defaults.meanMillis;
+        double deviation = words.length > 2 ? Double.parseDouble(words[2]) * 1000.0 : defaults.deviationMillis;
+        return new ReactionTime(distribution, mean, deviation);
+    }
+
+    /**
+     * @param random - the source of randomness.
+     * @return - a reaction time in milliseconds.
+     */
+    public long sample(Random random) {
+        double millis;
+        switch (distribution) {
+            case UNIFORM:
+                millis = meanMillis + (random.nextDouble() * 2 - 1) * deviationMillis;
+                break;
+            case NORMAL:
+                millis = meanMillis + random.nextGaussian() * deviationMillis;
+                break;
+            case EXPONENTIAL:
+                millis = -meanMillis * Math.log(1 - random.nextDouble());
+                break;
+            case LOG_NORMAL:
+                // the parameters of the normal distribution whose exponent has the given mean and deviation
+                double variance = Math.log(1 + (deviationMillis * deviationMillis) / (meanMillis * meanMillis));
+                double mu = Math.log(meanMillis) - variance / 2;
+                millis = Math.exp(mu + random.nextGaussian() * Math.sqrt(variance));
+                break;
+            default:
+                millis = meanMillis;
+        }
+        return Math.max(0, Math.round(millis));
+    }
+}
@@ -0,0 +1,188 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+import bguspl.set.SetIndex;
+
+/**
+ * This class keeps count of the legal sets that can be formed from a changing group of cards.
+ * Adding or removing a card only looks at the sets containing that card, so the count is always ready to be read.
+ *
+ * @inv count() == the number of legal sets among the cards in the group
+ */
+public class SetCounter {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * The cards in the group.
+     */
+    private final CardSet cards;
+
+    /**
+     * The number of legal sets among the cards in the group.
+     */
+    private long sets;
+
+    /**
+     * Scratch arrays for the cards of a set being checked, so updates do not allocate.
+     */
+    private final int[] partial;
+    private final int[] candidate;
+
+    /**
+     * The class constructor.
+     *
+     * @param env - the environment object.
+     */
+    public SetCounter(Env env) {
+        this.env = env;
+        this.cards = new CardSet(env.config.deckSize);
+        this.partial = new int[Math.max(env.config.featureSize - 1, 0)];
+        this.candidate = new int[env.config.featureSize];
+        this.sets = 0;
+    }
+
+    /**
+     * Adds a card to the group and counts the new sets it forms with the cards already in it.
+     *
+     * @param card - the card id to add.
+     * @post - contains(card) == true
+     */
+    public void add(int card) {
+        if (contains(card))
+            return;
+        sets += setsWith(card);
+        this.cards.add(card);
+    }
+
+    /**
+     * Adds cards to the group. When the group is empty the sets are counted in parallel, all at once.
+     *
+     * @param cards - the card ids to add.
+     * @post - contains(card) == true for every card in cards
+     */
+    public void addAll(int[] cards) {
+        if (!this.cards.isEmpty()) {
+            for (int card : cards)
+                add(card);
+            return;
+        }
+        for (int card : cards) {
+            if (!contains(card))
+                this.cards.add(card);
+        }
+        sets = env.util.countSets(this.cards.toArray(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Removes a card from the group and discounts the sets it was part of.
+     *
+     * @param card - the card id to remove.
+     * @post - contains(card) == false
+     */
+    public void remove(int card) {
+        if (!contains(card))
+            return;
+        cards.remove(card);
+        sets -= setsWith(card);
+    }
+
+    /**
+     * Removes all the cards from the group.
+     */
+    public void clear() {
+        cards.clear();
+        sets = 0;
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - true iff the card is in the group.
+     */
+    public boolean contains(int card) {
+        return cards.contains(card);
+    }
+
+    /**
+     * @return - the number of cards in the group.
+     */
+    public int size() {
+        return cards.size();
+    }
+
+    /**
+     * Returns a card of the group, for iterating over the group with no allocation.
+     *
+     * @param index - the index of the card (between 0 and size() - 1).
+     * @return - the id of the card.
+     */
+    public int get(int index) {
+        return cards.get(index);
+    }
+
+    /**
+     * @return - the number of legal sets among the cards in the group.
+     */
+    public long count() {
+        return sets;
+    }
+
+    /**
+     * Counts the sets that the card forms with the cards in the group (the card itself must not be in it).
+     *
+     * @param card - the card id.
+     * @return - the number of legal sets containing the card.
+     */
+    private long setsWith(int card) {
+        if (partial.length == 0)
+            return 0;
+
+        // for big groups it is cheaper to go over the (few) indexed sets of the card than over the group
+        SetIndex index = env.util.setIndex();
+        if (index != null && index.setsContainingCount(card) < cards.size()) {
+            long found = 0;
+            for (int i = 0; i < index.setsContainingCount(card); i++) {
+                int set = index.setContaining(card, i);
+                int first = index.card(set, 0), second = index.card(set, 1), third = index.card(set, 2);
+                if ((first == card || contains(first)) && (second == card || contains(second))
+                        && (third == card || contains(third)))
+                    found++;
+            }
+            return found;
+        }
+
+        partial[0] = card;
+        return setsWith(1, 0);
+    }
+
+    /**
+     * Picks the rest of the cards of the set (by increasing index in the group) and counts the ones that form a set.
+     * When featureSize >= 3 the last card is not searched for, it is computed and looked up.
+     */
+    private long setsWith(int depth, int from) {
+        if (depth == partial.length) {
+            // the set is counted only when the last card comes after the picked ones, so it is counted once
+            if (env.config.featureSize >= 3) {
+                int completion = env.util.completeSet(partial);
+                return completion != -1 && contains(completion) && cards.indexOf(completion) >= from ? 1 : 0;
+            }
+            long found = 0;
+            System.arraycopy(partial, 0, candidate, 0, partial.length);
+            for (int i = from; i < cards.size(); i++) {
+                candidate[partial.length] = cards.get(i);
+                if (env.util.testSet(candidate))
+                    found++;
+            }
+            return found;
+        }
+        long found = 0;
+        for (int i = from; i < cards.size(); i++) {
+            partial[depth] = cards.get(i);
+            found += setsWith(depth + 1, i + 1);
+        }
+        return found;
+    }
+}
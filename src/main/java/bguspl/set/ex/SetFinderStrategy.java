@@ -0,0 +1,106 @@
+package bguspl.set.ex;
+
+import bguspl.set.SetIndex;
+import bguspl.set.Util;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * A computer player that plays like a person: it looks for a legal set on the table (with the set engine), takes a
+ * reaction time to see it, and then presses its cards. Tokens it has on other cards are removed first.
+ */
+public class SetFinderStrategy implements Strategy {
+
+    private final Util util;
+    private final ReactionTime reactionTime;
+    private final Random random;
+
+    /**
+     * The cards of the set the player is pressing (null if it has none).
+     */
+    private int[] target;
+
+    /**
+     * The time to take before the last chosen press.
+     */
+    private long delay;
+
+    /**
+     * The class constructor.
+     *
+     * @param util         - the set engine, to find the sets on the table.
+     * @param reactionTime - the time it takes to see a set.
+     * @param random       - the source of the random choices.
+     */
+    public SetFinderStrategy(Util util, ReactionTime reactionTime, Random random) {
+        this.util = util;
+        this.reactionTime = reactionTime;
+        this.random = random;
+    }
+
+    @Override
+    public int nextSlot(Table table, Collection<Integer> marked) {
+        delay = 0;
+        // the set is gone when one of its cards was taken
+        if (target != null && !onTable(table, target))
+            target = null;
+        if (target == null) {
+            target = findSet(table);
+            if (target == null)
+                return -1;
+            delay = reactionTime.sample(random);
+        }
+        // tokens that are not part of the set are removed first
+        for (int card : marked)
+            if (!contains(target, card) && table.cardToSlot[card] != null)
+                return table.cardToSlot[card];
+        for (int card : target)
+            if (!marked.contains(card))
+                return table.cardToSlot[card];
+        // the claim is complete, waiting for the dealer
+        return -1;
+    }
+
+    @Override
+    public long delayMillis() {
+        return delay;
+    }
+
+    /**
+     * @param table - the table.
+     * @return - the cards of a random legal set on the table, or null if there is none.
+     */
+    private int[] findSet(Table table) {
+        int[] cards = new int[table.slotToCard.length];
+        int count = 0;
+        for (Integer card : table.slotToCard)
+            if (card != null)
+                cards[count++] = card;
+        int[] onTable = new int[count];
+        System.arraycopy(cards, 0, onTable, 0, count);
+        SetIndex index = util.setIndex();
+        if (index != null) {
+            int[] sets = index.setsAmong(onTable);
+            return sets.length == 0 ? null : index.cards(sets[random.nextInt(sets.length)]);
+        }
+        List<int[]> sets = util.streamSets(onTable).collect(Collectors.toList());
+        return sets.isEmpty() ? null : sets.get(random.nextInt(sets.size()));
+    }
+
+    private static boolean onTable(Table table, int[] cards) {
+        for (int card : cards)
+            if (table.cardToSlot[card] == null)
+                return false;
+        return true;
+    }
+
+    private static boolean contains(int[] cards, int card) {
+        for (int c : cards)
+            if (c == card)
+                return true;
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.Random;
+
+/**
+ * Creates the strategies of the computer players from the configuration (ComputerStrategies).
+ * Every computer player has an entry of the strategy name and its parameters, separated by spaces:
+ * "Random", "ClaimSpammer", or "SetFinder" with an optional reaction time (see ReactionTime).
+ */
+public final class Strategies {
+
+    /**
+     * The reaction time of a set finder with no reaction time of its own.
+     */
+    public static final ReactionTime DEFAULT_REACTION_TIME =
+            new ReactionTime(ReactionTime.Distribution.LOG_NORMAL, 1500, 500);
+
+    private Strategies() {
+    }
+
+    /**
+     * Creates the strategy of a computer player.
+     *
+     * @param env    - the environment object.
+     * @param id     - the id of the player.
+     * @param random - the source of the random choices of the strategy.
+     * @return - the strategy configured for the player (random if it has none, or it is not valid).
+     */
+    public static Strategy create(Env env, int id, Random random) {
+        int index = id - env.config.humanPlayers;
+        // computer players are the last ones
+        String spec = index >= 0 && index < env.config.computerStrategies.length
+                ? env.config.computerStrategies[index]
+                : "Random";
+        String[] words = spec.trim().split("\\s+");
+        try {
+            switch (words[0]) {
+                case "":
+                case "Random":
+                    return new RandomStrategy(random);
+                case "SetFinder":
+                    String[] reactionTime = new String[words.length - 1];
+                    System.arraycopy(words, 1, reactionTime, 0, reactionTime.length);
+                    return new SetFinderStrategy(env.util, ReactionTime.parse(reactionTime, DEFAULT_REACTION_TIME),
+                            random);
+                case "ClaimSpammer":
+                    return new ClaimSpammerStrategy(env.util, env.config.featureSize, random);
+                default:
+                    throw new IllegalArgumentException("unknown strategy " + words[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            env.logger.severe("player " + id + " strategy \"" + spec + "\" is not valid (" + e.getMessage()
+                    + "), using Random");
+            return new RandomStrategy(random);
+        }
+    }
+}
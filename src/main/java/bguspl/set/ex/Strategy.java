@@ -0,0 +1,28 @@
+package bguspl.set.ex;
+
+import java.util.Collection;
+
+/**
+ * The decisions of a computer player: which slot to press next, and how long to take before pressing it.
+ * A strategy belongs to a single player and is only called by its AI, while holding the table's lock, so it can read
+ * the table directly and keep state of its own between the calls.
+ *
+ * @see Strategies for the built in strategies and how they are configured.
+ */
+public interface Strategy {
+
+    /**
+     * Chooses the next slot to press.
+     *
+     * @param table  - the table (its lock is held by the caller).
+     * @param marked - the cards the player will have tokens on once its key presses so far are handled.
+     * @return - the slot to press, or -1 if there is nothing to press until the table or the player changes.
+     */
+    int nextSlot(Table table, Collection<Integer> marked);
+
+    /**
+     * @return - the time (in milliseconds) the player takes before pressing the slot chosen by the last call to
+     *         nextSlot (0 to press it right away).
+     */
+    long delayMillis();
+}
@@ -1,11 +1,19 @@
 package bguspl.set.ex;
 
 import bguspl.set.Env;
+import bguspl.set.SetIndex;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This class contains the data that is visible to the player.
@@ -29,6 +37,39 @@ public class Table {
      */
     protected final Integer[] cardToSlot; // slot per card (if any)
 
+    /**
+     * Mapping between a slot and the players that have tokens on it (bit p is set iff player p has a token there).
+     */
+    private final long[] slotTokens; // players per slot
+
+    /**
+     * Mapping between a player and the slots it has tokens on (bit s is set iff the player has a token on slot s).
+     * Always updated together with slotTokens.
+     */
+    private final long[] playerTokens; // slots per player
+
+    /**
+     * Guards the table for the dealer and the players. A lock and not the table's monitor, so a virtual thread waiting
+     * for the table does not hold on to its carrier thread.
+     */
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Delivers the delayed user interface events of all the tables (see deliver).
+     */
+    private static final ScheduledExecutorService uiScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "table-ui");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The user interface events of this table that were not delivered yet, by order.
+     */
+    private final Queue<UiEvent> uiEvents = new ArrayDeque<UiEvent>();
+    private long lastUiEventDue; // when the last event in uiEvents should be delivered
+    private boolean uiEventsScheduled; // true iff a delivery of uiEvents is scheduled
+
     /**
      * Constructor for testing.
      *
@@ -41,6 +82,9 @@ public class Table {
         this.env = env;
         this.slotToCard = slotToCard;
         this.cardToSlot = cardToSlot;
+        // the tokens are kept in single words (the configuration has at most 64 slots and 64 players)
+        this.slotTokens = new long[slotToCard.length];
+        this.playerTokens = new long[env.config.players];
     }
 
     /**
@@ -57,8 +101,12 @@ public class Table {
      * This method prints all possible legal sets of cards that are currently on the table.
      */
     public void hints() {
-        List<Integer> deck = Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
-        env.util.findSets(deck, Integer.MAX_VALUE).forEach(set -> {
+        int[] cards = Arrays.stream(slotToCard).filter(Objects::nonNull).mapToInt(Integer::intValue).toArray();
+        SetIndex index = env.util.setIndex();
+        Stream<int[]> sets = index == null
+                ? env.util.streamSets(cards)
+                : Arrays.stream(index.setsAmong(cards)).mapToObj(index::cards);
+        sets.forEach(set -> {
             StringBuilder sb = new StringBuilder().append("Hint: Set found: ");
             List<Integer> slots = Arrays.stream(set).mapToObj(card -> cardToSlot[card]).sorted().collect(Collectors.toList());
             int[][] features = env.util.cardsToFeatures(set);
@@ -81,34 +129,51 @@ public class Table {
 
     /**
      * Places a card on the table in a grid slot.
+     * The table changes right away, the card is shown after config.tableDelayMillis (see deliver).
      * @param card - the card id to place in the slot.
      * @param slot - the slot in which the card should be placed.
      *
      * @post - the card placed is on the table, in the assigned slot.
      */
     public void placeCard(int card, int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
-
         cardToSlot[card] = slot;
         slotToCard[slot] = card;
 
-        env.ui.placeCard(card, slot);
+        deliver(() -> env.ui.placeCard(card, slot), true);
+    }
+
+    /**
+     * Places cards on the table, all at once. The cards are shown one after the other, config.tableDelayMillis apart.
+     * @param cards - the card ids to place.
+     * @param slots - the slots in which the cards should be placed (respectively).
+     *
+     * @post - the cards placed are on the table, in the assigned slots.
+     */
+    public void placeCards(int[] cards, int[] slots) {
+        for (int i = 0; i < cards.length; i++)
+            placeCard(cards[i], slots[i]);
     }
 
     /**
      * Removes a card from a grid slot on the table.
+     * The table changes right away, the card disappears after config.tableDelayMillis (see deliver).
      * @param slot - the slot from which to remove the card.
      */
     public void removeCard(int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
-
         cardToSlot[slotToCard[slot]] = null;
         slotToCard[slot] = null;
-        env.ui.removeCard(slot);
+        clearSlotTokens(slot);
+        deliver(() -> env.ui.removeCard(slot), true);
+    }
+
+    /**
+     * Removes cards from the table, all at once. The cards disappear one after the other, config.tableDelayMillis
+     * apart.
+     * @param slots - the slots from which to remove the cards.
+     */
+    public void removeCards(int[] slots) {
+        for (int slot : slots)
+            removeCard(slot);
     }
 
     /**
@@ -117,7 +182,9 @@ public class Table {
      * @param slot   - the slot on which to place the token.
      */
     public void placeToken(int player, int slot) {
-        env.ui.placeToken(player, slot);
+        slotTokens[slot] |= 1L << player;
+        playerTokens[player] |= 1L << slot;
+        deliver(() -> env.ui.placeToken(player, slot), false);
     }
 
     /**
@@ -127,7 +194,142 @@ public class Table {
      * @return       - true iff a token was successfully removed.
      */
     public boolean removeToken(int player, int slot) {
-        env.ui.removeToken(player, slot);
-        return false;
+        boolean removed = hasToken(player, slot);
+        slotTokens[slot] &= ~(1L << player);
+        playerTokens[player] &= ~(1L << slot);
+        deliver(() -> env.ui.removeToken(player, slot), false);
+        return removed;
+    }
+
+    /**
+     * Removes the tokens of all the players from a grid slot.
+     * @param slot - the slot from which to remove the tokens.
+     * @return     - the ids of the players that had a token on the slot.
+     */
+    public int[] removeTokens(int slot) {
+        long players = slotTokens[slot];
+        int[] ids = new int[Long.bitCount(players)];
+        for (int i = 0; players != 0; players &= players - 1)
+            ids[i++] = Long.numberOfTrailingZeros(players);
+        clearSlotTokens(slot);
+        deliver(() -> env.ui.removeTokens(slot), false);
+        return ids;
+    }
+
+    /**
+     * Removes all the tokens from the table.
+     */
+    public void removeAllTokens() {
+        Arrays.fill(slotTokens, 0L);
+        Arrays.fill(playerTokens, 0L);
+        deliver(env.ui::removeTokens, false);
+    }
+
+    /**
+     * Removes the tokens on a slot from both masks (with no user interface event).
+     * @param slot - the slot.
+     */
+    private void clearSlotTokens(int slot) {
+        for (long players = slotTokens[slot]; players != 0; players &= players - 1)
+            playerTokens[Long.numberOfTrailingZeros(players)] &= ~(1L << slot);
+        slotTokens[slot] = 0;
+    }
+
+    /**
+     * @param player - the player.
+     * @param slot   - the slot.
+     * @return       - true iff the player has a token on the slot.
+     */
+    public boolean hasToken(int player, int slot) {
+        return (playerTokens[player] & 1L << slot) != 0;
+    }
+
+    /**
+     * @param player - the player.
+     * @return       - the slots the player has tokens on (bit s is set iff it has a token on slot s).
+     */
+    public long tokens(int player) {
+        return playerTokens[player];
+    }
+
+    /**
+     * @param player - the player.
+     * @return       - the number of tokens the player has on the table.
+     */
+    public int countTokens(int player) {
+        return Long.bitCount(playerTokens[player]);
+    }
+
+    /**
+     * @param player - the player.
+     * @return       - the cards the player has tokens on, by the order of their slots.
+     */
+    public int[] tokenCards(int player) {
+        long slots = playerTokens[player];
+        int[] cards = new int[Long.bitCount(slots)];
+        for (int i = 0; slots != 0; slots &= slots - 1)
+            cards[i++] = slotToCard[Long.numberOfTrailingZeros(slots)];
+        return cards;
+    }
+
+    /**
+     * Sends an event to the user interface, in the order the table changed.
+     * Card events are delayed config.tableDelayMillis after the previous event, so cards appear one by one without
+     * the table (and the players waiting for it) sleeping. Token events are delivered right after the events before
+     * them. With no table delay the events are delivered right away, on the calling thread.
+     * @param event   - the user interface call.
+     * @param delayed - true iff the event should wait config.tableDelayMillis after the previous one.
+     */
+    private void deliver(Runnable event, boolean delayed) {
+        if (env.config.tableDelayMillis <= 0) {
+            event.run();
+            return;
+        }
+        synchronized (uiEvents) {
+            long now = env.clock.nanoTime();
+            long due = Math.max(now, lastUiEventDue) + (delayed ? TimeUnit.MILLISECONDS.toNanos(env.config.tableDelayMillis) : 0);
+            lastUiEventDue = due;
+            uiEvents.add(new UiEvent(due, event));
+            if (!uiEventsScheduled) {
+                uiEventsScheduled = true;
+                uiScheduler.schedule(this::deliverDueEvents, env.clock.toRealNanos(due - now), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Runs the events that are due (by order) and schedules itself again for the next one.
+     */
+    private void deliverDueEvents() {
+        while (true) {
+            UiEvent next;
+            synchronized (uiEvents) {
+                next = uiEvents.peek();
+                if (next == null) {
+                    uiEventsScheduled = false;
+                    return;
+                }
+                long wait = next.due - env.clock.nanoTime();
+                if (wait > 0) {
+                    uiScheduler.schedule(this::deliverDueEvents, env.clock.toRealNanos(wait), TimeUnit.NANOSECONDS);
+                    return;
+                }
+                uiEvents.poll();
+            }
+            next.event.run();
+        }
+    }
+
+    /**
+     * A user interface call and the time (in System.nanoTime units) it should be delivered at.
+     */
+    private static class UiEvent {
+        final long due;
+        final Runnable event;
+
+        UiEvent(long due, Runnable event) {
+            this.due = due;
+            this.event = event;
+        }
     }
 }
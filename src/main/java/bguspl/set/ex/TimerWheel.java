@@ -0,0 +1,193 @@
+package bguspl.set.ex;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timer wheel: runs short tasks once, after a delay, on a single worker thread.
+ * The timers are kept in a ring of buckets, one bucket per tick, so scheduling, cancelling and expiring a timer take
+ * constant time however many timers there are. A timer runs on the first tick at or after its deadline, so it is late
+ * by up to one tick. The worker sleeps while there are no timers.
+ */
+public class TimerWheel {
+
+    /**
+     * A timer of the wheel.
+     */
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline; // in System.nanoTime units
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final TimerWheel wheel;
+        private long rounds; // the full turns of the wheel left before the timer expires
+        private Timeout next; // the next timer in the bucket
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timer, if it did not run yet.
+         *
+         * @return - true iff the timer was cancelled (its task never runs).
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED))
+                return false;
+            // the worker drops the timer when it reaches its bucket
+            wheel.pending.decrementAndGet();
+            return true;
+        }
+
+        private boolean expire() {
+            return state.compareAndSet(PENDING, EXPIRED);
+        }
+
+        private boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    private final String name;
+    private final long tickNanos;
+    private final Timeout[] buckets;
+    private final int mask;
+
+    /**
+     * The timers scheduled since the last tick (moved to their buckets by the worker).
+     */
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<Timeout>();
+
+    /**
+     * The number of timers that did not run and were not cancelled.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Thread worker;
+
+    private long startTime; // the time of tick 0 (used only by the worker)
+    private long tick; // the next tick to run (used only by the worker)
+
+    /**
+     * The class constructor.
+     *
+     * @param name         - the name of the worker thread.
+     * @param tickDuration - the duration of a tick.
+     * @param unit         - the time unit of the tick duration.
+     * @param ticksPerTurn - the number of buckets (rounded up to a power of 2).
+     */
+    public TimerWheel(String name, long tickDuration, TimeUnit unit, int ticksPerTurn) {
+        this.name = name;
+        this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+        int size = Integer.highestOneBit(Math.max(1, ticksPerTurn - 1)) << 1;
+        this.buckets = new Timeout[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Runs a task once, after a delay (in real time). The task runs on the worker thread, so it should be short.
+     *
+     * @param task  - the task to run.
+     * @param delay - the delay in nanoseconds.
+     * @return - the timer, which can be cancelled.
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        Timeout timeout = new Timeout(this, task, System.nanoTime() + Math.max(0, delay));
+        pending.incrementAndGet();
+        added.add(timeout);
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::work, name);
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+        } else {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    private void work() {
+        startTime = System.nanoTime();
+        while (true) {
+            // no timers, so no ticks until one is scheduled
+            while (pending.get() == 0) {
+                LockSupport.park(this);
+                // the buckets are empty, so the wheel can skip the ticks it slept through
+                tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+            }
+            long tickTime = startTime + tick * tickNanos;
+            long now = System.nanoTime();
+            if (now < tickTime) {
+                LockSupport.parkNanos(this, tickTime - now);
+                continue;
+            }
+            transferAdded();
+            expireBucket();
+            ++tick;
+        }
+    }
+
+    /**
+     * Moves the timers scheduled since the last tick to their buckets.
+     */
+    private void transferAdded() {
+        for (Timeout timeout = added.poll(); timeout != null; timeout = added.poll()) {
+            if (timeout.isCancelled())
+                continue;
+            // the first tick at or after the deadline, and no earlier than the current one
+            long deadlineTick = Math.max(tick, (timeout.deadline - startTime + tickNanos - 1) / tickNanos);
+            timeout.rounds = (deadlineTick - tick) / buckets.length;
+            int bucket = (int) (deadlineTick & mask);
+            timeout.next = buckets[bucket];
+            buckets[bucket] = timeout;
+        }
+    }
+
+    /**
+     * Runs the timers of the current tick, and drops the cancelled ones.
+     */
+    private void expireBucket() {
+        int bucket = (int) (tick & mask);
+        Timeout previous = null;
+        Timeout timeout = buckets[bucket];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            boolean remove = timeout.isCancelled();
+            if (!remove && timeout.rounds > 0) {
+                --timeout.rounds;
+            } else if (!remove) {
+                remove = true;
+                if (timeout.expire()) {
+                    pending.decrementAndGet();
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException ignored) {
+                        // a failing task does not stop the other timers
+                    }
+                }
+            }
+            if (remove) {
+                if (previous == null)
+                    buckets[bucket] = next;
+                else
+                    previous.next = next;
+                timeout.next = null;
+            } else {
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+}
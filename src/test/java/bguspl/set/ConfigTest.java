@@ -0,0 +1,37 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigTest {
+
+    @Test
+    void players_AtMostTheTokenLimit() {
+
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "2");
+        properties.put("ComputerPlayers", "100");
+        Config config = new Config(new UtilImplTest.MockLogger(), properties);
+
+        assertEquals(Config.MAX_PLAYERS, config.players);
+        assertEquals(2, config.humanPlayers);
+        assertEquals(Config.MAX_PLAYERS - 2, config.computerStrategies.length);
+    }
+
+    @Test
+    void tableSize_AtMostTheTokenLimit() {
+
+        Properties properties = new Properties();
+        properties.put("Rows", "10");
+        properties.put("Columns", "10");
+        Config config = new Config(new UtilImplTest.MockLogger(), properties);
+
+        assertTrue(config.tableSize <= Config.MAX_TABLE_SIZE);
+        assertEquals(10, config.columns);
+        assertEquals(config.rows * config.columns, config.tableSize);
+    }
+}
@@ -0,0 +1,28 @@
+package bguspl.set;
+
+import bguspl.set.ex.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class RoomManagerTest {
+
+    @Test
+    void open_NoUserInterface_OnlyComputerPlayers() throws InterruptedException {
+
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "2");
+        properties.put("ComputerPlayers", "0");
+        properties.put("TableDelaySeconds", "0");
+        UtilImplTest.MockLogger logger = new UtilImplTest.MockLogger();
+        Config config = new Config(logger, properties);
+        RoomManager roomManager = new RoomManager(logger, config, new UtilImpl(config), false);
+
+        RoomManager.Room room = roomManager.open(null);
+        for (Player player : room.players)
+            assertFalse(player.isHuman());
+        roomManager.shutdown();
+    }
+}
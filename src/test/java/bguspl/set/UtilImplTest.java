@@ -0,0 +1,197 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilImplTest {
+
+    private static Config config(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        properties.put("TableDelaySeconds", "0");
+        return new Config(new MockLogger(), properties);
+    }
+
+    /**
+     * Straightforward set check over the feature arrays, used as the reference result.
+     */
+    private static boolean isSet(Util util, int[] cards) {
+        int[][] features = util.cardsToFeatures(cards);
+        for (int i = 0; i < features[0].length; ++i) {
+            boolean sameSame = true, butDifferent = true;
+            for (int j = 0; j < cards.length; ++j)
+                for (int k = j + 1; k < cards.length; ++k)
+                    if (features[j][i] == features[k][i]) butDifferent = false;
+                    else sameSame = false;
+            if (sameSame == butDifferent) return false;
+        }
+        return true;
+    }
+
+    @Test
+    void feature_MatchesCardDigits() {
+        Config config = config(3, 4);
+        Util util = new UtilImpl(config);
+
+        assertArrayEquals(new int[]{1, 2, 0, 1}, util.cardToFeatures(1 * 27 + 2 * 9 + 0 * 3 + 1));
+        for (int card = 0; card < config.deckSize; ++card) {
+            int id = 0;
+            for (int i = 0; i < config.featureCount; ++i)
+                id = id * config.featureSize + util.feature(card, i);
+            assertEquals(card, id);
+        }
+    }
+
+    @Test
+    void testSet_StandardDeck() {
+        Util util = new UtilImpl(config(3, 4));
+
+        assertTrue(util.testSet(new int[]{0, 1, 2}));
+        assertTrue(util.testSet(new int[]{0, 40, 80}));
+        assertFalse(util.testSet(new int[]{0, 1, 3}));
+        assertFalse(util.testSet(new int[]{0, 0, 1}));
+    }
+
+    @Test
+    void testSet_MatchesReference() {
+        int[][] variants = {{3, 4}, {3, 3}, {4, 3}, {5, 2}};
+        for (int[] variant : variants) {
+            Config config = config(variant[0], variant[1]);
+            Util util = new UtilImpl(config);
+            int[] cards = new int[config.featureSize];
+            for (int first = 0; first < config.deckSize; ++first) {
+                // walk a few deterministic card combinations starting at every card
+                for (int step = 1; step < config.deckSize; step += 7) {
+                    for (int i = 0; i < cards.length; ++i)
+                        cards[i] = (first + i * step) % config.deckSize;
+                    assertEquals(isSet(util, cards), util.testSet(cards));
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the sets in the whole deck by testing every combination, used as the reference result.
+     */
+    private static int countSetsByScan(Util util, Config config) {
+        int[] cards = new int[config.featureSize];
+        return countSetsByScan(util, config, cards, 0, 0);
+    }
+
+    private static int countSetsByScan(Util util, Config config, int[] cards, int depth, int from) {
+        if (depth == cards.length) return util.testSet(cards) ? 1 : 0;
+        int count = 0;
+        for (int card = from; card < config.deckSize; ++card) {
+            cards[depth] = card;
+            count += countSetsByScan(util, config, cards, depth + 1, card + 1);
+        }
+        return count;
+    }
+
+    private static List<Integer> deck(Config config) {
+        return IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    void completeSet_StandardDeck() {
+        Util util = new UtilImpl(config(3, 4));
+
+        assertEquals(2, util.completeSet(new int[]{0, 1}));
+        assertEquals(80, util.completeSet(new int[]{0, 40}));
+        assertEquals(40, util.completeSet(new int[]{80, 0}));
+    }
+
+    @Test
+    void findSets_StandardDeck() {
+        Config config = config(3, 4);
+        Util util = new UtilImpl(config);
+
+        List<int[]> sets = util.findSets(deck(config), Integer.MAX_VALUE);
+        assertEquals(1080, sets.size());
+        sets.forEach(set -> assertTrue(util.testSet(set)));
+        assertEquals(5, util.findSets(deck(config), 5).size());
+    }
+
+    @Test
+    void findSets_MatchesReference() {
+        int[][] variants = {{3, 3}, {4, 3}, {5, 2}, {2, 3}};
+        for (int[] variant : variants) {
+            Config config = config(variant[0], variant[1]);
+            Util util = new UtilImpl(config);
+            assertEquals(countSetsByScan(util, config), util.findSets(deck(config), Integer.MAX_VALUE).size());
+        }
+    }
+
+    @Test
+    void streamSets_StandardDeck() {
+        Config config = config(3, 4);
+        Util util = new UtilImpl(config);
+        int[] cards = IntStream.range(0, config.deckSize).toArray();
+
+        assertEquals(1080, util.streamSets(cards).count());
+        assertTrue(util.streamSets(cards).allMatch(util::testSet));
+        assertEquals(0, util.streamSets(new int[]{0, 1, 3}).count());
+        assertTrue(util.streamSets(new int[]{5, 0, 1, 2}).anyMatch(set -> Arrays.equals(set, new int[]{0, 1, 2})));
+    }
+
+    @Test
+    void setIndex_StandardDeck() {
+        Config config = config(3, 4);
+        Util util = new UtilImpl(config);
+        SetIndex index = util.setIndex();
+
+        assertEquals(1080, index.setCount());
+        for (int card = 0; card < config.deckSize; ++card)
+            assertEquals(40, index.setsContainingCount(card));
+        for (int set = 0; set < index.setCount(); ++set)
+            assertTrue(util.testSet(new int[]{index.card(set, 0), index.card(set, 1), index.card(set, 2)}));
+        assertEquals(80, index.complete(0, 40));
+
+        int[] table = {0, 1, 2, 40, 80, 5};
+        assertEquals(2, index.countSets(table));
+        assertEquals(2, index.setsAmong(table).length);
+        assertEquals(2, util.countSets(table, Long.MAX_VALUE));
+        assertArrayEquals(new int[]{0, 40, 80}, index.cards(index.setOf(0, 40)));
+    }
+
+    @Test
+    void countSets_LargeDeck() {
+        Config config = config(3, 7);
+        Util util = new UtilImpl(config);
+        int[] cards = IntStream.range(0, config.deckSize).toArray();
+
+        // every pair of cards in the full deck has exactly one completion
+        assertEquals((long) config.deckSize * (config.deckSize - 1) / 6, util.countSets(cards, Long.MAX_VALUE));
+        assertEquals(10, util.countSets(cards, 10));
+    }
+
+    @Test
+    void findSetsParallel_RespectsCount() {
+        Config config = config(3, 7);
+        Util util = new UtilImpl(config);
+        int[] cards = IntStream.range(0, config.deckSize).toArray();
+
+        int[] sets = util.findSetsParallel(cards, 100);
+        assertEquals(100 * config.featureSize, sets.length);
+        for (int i = 0; i < sets.length; i += config.featureSize)
+            assertTrue(util.testSet(Arrays.copyOfRange(sets, i, i + config.featureSize)));
+    }
+
+    static class MockLogger extends Logger {
+        protected MockLogger() {
+            super("", null);
+        }
+    }
+}
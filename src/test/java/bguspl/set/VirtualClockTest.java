@@ -0,0 +1,46 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualClockTest {
+
+    @Test
+    void advance_MovesTimeForward() {
+
+        VirtualClock clock = new VirtualClock(1);
+        long before = clock.currentTimeMillis();
+        clock.advance(60000);
+        assertTrue(clock.currentTimeMillis() - before >= 60000);
+    }
+
+    @Test
+    void sleep_TakesScaledRealTime() throws InterruptedException {
+
+        VirtualClock clock = new VirtualClock(1000);
+        long realStart = System.nanoTime();
+        long start = clock.currentTimeMillis();
+        clock.sleep(3000);
+        assertTrue(clock.currentTimeMillis() - start >= 3000);
+        assertTrue(System.nanoTime() - realStart < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void toRealNanos_RoundsUp() {
+
+        VirtualClock clock = new VirtualClock(1000);
+        assertEquals(1, clock.toRealNanos(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(60), clock.toRealNanos(TimeUnit.SECONDS.toNanos(60)));
+    }
+
+    @Test
+    void constructor_RejectsNonPositiveSpeedup() {
+
+        assertThrows(IllegalArgumentException.class, () -> new VirtualClock(0));
+    }
+}
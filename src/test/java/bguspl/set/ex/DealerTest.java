@@ -0,0 +1,190 @@
+package bguspl.set.ex;
+
+import bguspl.set.Clock;
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.SystemClock;
+import bguspl.set.UtilImpl;
+import bguspl.set.VirtualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DealerTest {
+
+    Env env;
+    Table table;
+    Dealer dealer;
+
+    @BeforeEach
+    void setUp() {
+
+        createDealer("0", new SystemClock());
+    }
+
+    /**
+     * Creates a dealer with no players, with a 5 second turn timeout warning refreshed 10 times a second.
+     */
+    private void createDealer(String turnTimeoutSeconds, Clock clock) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "0");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("TurnTimeoutSeconds", turnTimeoutSeconds);
+        properties.put("TurnTimeoutWarningSeconds", "5");
+        properties.put("TurnTimeoutWarningRefreshRate", "10");
+        TableTest.MockLogger logger = new TableTest.MockLogger();
+        Config config = new Config(logger, properties);
+        env = new Env(logger, config, new TableTest.MockUserInterface(), new UtilImpl(config), Thread::new, null,
+                null, clock) {
+            @Override
+            public Random newRandom(long stream) {
+                return new FirstChoiceRandom();
+            }
+        };
+        table = new Table(env);
+        dealer = new Dealer(env, table, new Player[0]);
+    }
+
+    /**
+     * Always makes the first choice, so the dealer draws the cards and the slots in a known order.
+     */
+    @SuppressWarnings("serial")
+    private static class FirstChoiceRandom extends Random {
+        @Override
+        public int nextInt(int bound) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return - the first tableSize cards of the deck with no set among them (picked greedily by card id).
+     */
+    private List<Integer> cardsWithNoSet() {
+        List<Integer> cards = new ArrayList<>();
+        for (int card = 0; card < env.config.deckSize && cards.size() < env.config.tableSize; card++) {
+            boolean completes = false;
+            for (int i = 0; i < cards.size() && !completes; i++)
+                for (int j = i + 1; j < cards.size() && !completes; j++)
+                    completes = env.util.completeSet(new int[]{cards.get(i), cards.get(j)}) == card;
+            if (!completes)
+                cards.add(card);
+        }
+        assertEquals(env.config.tableSize, cards.size());
+        return cards;
+    }
+
+    /**
+     * Leaves only the given cards in the deck. Drawing the first card every time and moving the last card into its
+     * place, the dealer draws them in the order cards[0], cards[n - 1], cards[n - 2], ..., cards[1].
+     */
+    private void setDeck(List<Integer> cards) {
+        DrawPile deck = dealer.getDeck();
+        for (int card = 0; card < env.config.deckSize; card++)
+            deck.draw(card);
+        for (int card : cards)
+            deck.add(card);
+    }
+
+    private List<Integer> cardsOnTable() {
+        List<Integer> cards = new ArrayList<>();
+        Arrays.stream(table.slotToCard).filter(Objects::nonNull).forEach(cards::add);
+        return cards;
+    }
+
+    @Test
+    void placeCardsOnTable_NoSetDealt_SwapsInACompletion() {
+
+        List<Integer> noSet = cardsWithNoSet();
+        int completion = env.util.completeSet(new int[]{noSet.get(0), noSet.get(2)});
+        // the dealer draws all the cards with no set, the completion is left in the deck
+        List<Integer> deck = new ArrayList<>(noSet);
+        deck.add(1, completion);
+        setDeck(deck);
+
+        dealer.placeCardsOnTable();
+
+        List<Integer> onTable = cardsOnTable();
+        assertEquals(env.config.tableSize, onTable.size());
+        assertTrue(onTable.contains(completion));
+        assertEquals(1, dealer.getDeck().size());
+        assertFalse(env.util.findSets(onTable, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void placeCardsOnTable_NoSetDealtAndNoCompletion_PlacesTheCards() {
+
+        setDeck(cardsWithNoSet());
+
+        dealer.placeCardsOnTable();
+
+        List<Integer> onTable = cardsOnTable();
+        assertEquals(env.config.tableSize, onTable.size());
+        assertTrue(dealer.getDeck().isEmpty());
+        assertTrue(env.util.findSets(onTable, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void nextDeadline_Countdown_WakesWhenTheSecondsChange() {
+
+        createDealer("60", new VirtualClock(1));
+        dealer.updateTimerDisplay(false);
+        long reshuffleTime = dealer.getReshuffleTime();
+
+        assertEquals(reshuffleTime - 59000, dealer.nextDeadline(reshuffleTime - 60000));
+        assertEquals(reshuffleTime - 12000, dealer.nextDeadline(reshuffleTime - 12345));
+        assertEquals(reshuffleTime - 12000, dealer.nextDeadline(reshuffleTime - 12999));
+        // the next second would be shown with the warning, which starts first
+        assertEquals(reshuffleTime - 5000, dealer.nextDeadline(reshuffleTime - 5600));
+    }
+
+    @Test
+    void sleepUntilWokenOrTimeout_Countdown_NotBeforeTheNextSecond() {
+
+        VirtualClock clock = new VirtualClock(10);
+        createDealer("60", clock);
+        dealer.updateTimerDisplay(false);
+        long before = clock.currentTimeMillis();
+        long deadline = dealer.nextDeadline(before);
+
+        dealer.sleepUntilWokenOrTimeout();
+
+        assertTrue(deadline > before);
+        assertTrue(clock.currentTimeMillis() >= deadline);
+    }
+
+    @Test
+    void nextDeadline_Warning_WakesAtTheRefreshRate() {
+
+        createDealer("60", new VirtualClock(1));
+        dealer.updateTimerDisplay(false);
+        long reshuffleTime = dealer.getReshuffleTime();
+
+        // 10 refreshes a second, whatever the seconds shown
+        assertEquals(reshuffleTime - 4900, dealer.nextDeadline(reshuffleTime - 5000));
+        assertEquals(reshuffleTime - 2950, dealer.nextDeadline(reshuffleTime - 3050));
+        // the last refresh is when the time is up
+        assertEquals(reshuffleTime, dealer.nextDeadline(reshuffleTime - 40));
+    }
+
+    @Test
+    void untilNextSecond() {
+
+        assertEquals(1000, Dealer.untilNextSecond(60000));
+        assertEquals(345, Dealer.untilNextSecond(12345));
+        assertEquals(1, Dealer.untilNextSecond(1001));
+        assertEquals(0, Dealer.untilNextSecond(0));
+    }
+}
@@ -0,0 +1,79 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyPressBufferTest {
+
+    KeyPressBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new KeyPressBuffer(3);
+    }
+
+    @Test
+    void offer_UntilFull() {
+
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(7));
+        assertTrue(buffer.offer(1));
+        assertFalse(buffer.offer(2));
+        assertEquals(0, buffer.remainingCapacity());
+        assertArrayEquals(new int[]{4, 7, 1}, buffer.toArray());
+    }
+
+    @Test
+    void poll_InOrderAcrossTheEnd() {
+
+        // every press moves the buffer one place, so it wraps around several times
+        for (int slot = 0; slot < 10; slot++) {
+            assertTrue(buffer.offer(slot));
+            assertTrue(buffer.offer(slot + 100));
+            assertEquals(slot, buffer.poll());
+            assertEquals(slot + 100, buffer.poll());
+        }
+        assertTrue(buffer.isEmpty());
+        assertEquals(-1, buffer.poll());
+    }
+
+    @Test
+    void clear_DropsOnlyTheEarlierPresses() {
+
+        buffer.offer(5);
+        buffer.offer(6);
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        buffer.offer(8);
+
+        assertEquals(8, buffer.poll());
+        assertEquals(-1, buffer.poll());
+        assertEquals(3, buffer.remainingCapacity());
+    }
+
+    @Test
+    void clear_FullBufferTakesPressesAgain() {
+
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.offer(3);
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(3, buffer.remainingCapacity());
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertTrue(buffer.offer(6));
+        assertFalse(buffer.offer(7));
+        assertArrayEquals(new int[]{4, 5, 6}, buffer.toArray());
+        assertEquals(4, buffer.poll());
+        assertEquals(5, buffer.poll());
+        assertEquals(6, buffer.poll());
+        assertEquals(-1, buffer.poll());
+    }
+}
@@ -4,6 +4,7 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.VirtualClock;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,13 +12,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class PlayerTest {
@@ -33,6 +36,8 @@ class PlayerTest {
     private Dealer dealer;
     @Mock
     private Logger logger;
+    @Mock
+    private ScheduledExecutorService playerPool;
 
     void assertInvariants() {
         assertTrue(player.id >= 0);
@@ -55,9 +60,6 @@ class PlayerTest {
     @Test
     void point() {
 
-        // force table.countCards to return 3
-        when(table.countCards()).thenReturn(3); // this part is just for demonstration
-
         // calculate the expected score for later
         int expectedScore = player.score() + 1;
 
@@ -70,4 +72,55 @@ class PlayerTest {
         // check that ui.setScore was called with the player's id and the correct score
         verify(ui).setScore(eq(player.id), eq(expectedScore));
     }
+
+    @Test
+    void step_Pooled_ClaimFreezeIdle() throws InterruptedException {
+
+        // a pooled player on a real table, whose steps are run by the test (the mocked pool runs nothing)
+        Config config = new Config(logger, (String) null);
+        VirtualClock clock = new VirtualClock(1);
+        Env env = new Env(logger, config, ui, util, Thread::new, playerPool, null, clock);
+        Integer[] slotToCard = new Integer[config.tableSize];
+        Integer[] cardToSlot = new Integer[config.deckSize];
+        for (int slot = 0; slot < config.featureSize; slot++) {
+            slotToCard[slot] = slot;
+            cardToSlot[slot] = slot;
+        }
+        Player pooled = new Player(env, dealer, new Table(env, slotToCard, cardToSlot), 0, true);
+
+        // waiting for the dealer to deal
+        pooled.step();
+        assertEquals(Player.State.IDLE, pooled.getState());
+        pooled.resume();
+        pooled.step();
+        assertEquals(Player.State.COLLECTING, pooled.getState());
+
+        // pressing the cards of a claim
+        for (int slot = 0; slot < config.featureSize; slot++)
+            pooled.keyPressed(slot);
+        pooled.step();
+        assertEquals(Player.State.CLAIM_PENDING, pooled.getState());
+        verify(dealer).submitClaim(any(Claim.class));
+
+        // the dealer gives a point, which freezes the player until its timer ends the freeze (a second later)
+        long start = clock.currentTimeMillis();
+        pooled.point();
+        pooled.resume();
+        pooled.step();
+        assertEquals(Player.State.FROZEN, pooled.getState());
+        pooled.step();
+        assertEquals(Player.State.FROZEN, pooled.getState());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pooled.getPenaltyTime() != 0 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertEquals(0, pooled.getPenaltyTime());
+        assertTrue(clock.currentTimeMillis() >= start + config.pointFreezeMillis);
+        pooled.step();
+        assertEquals(Player.State.COLLECTING, pooled.getState());
+
+        // the dealer blocks the player to sweep the table
+        pooled.setPlay(false);
+        pooled.step();
+        assertEquals(Player.State.IDLE, pooled.getState());
+    }
 }
\ No newline at end of file
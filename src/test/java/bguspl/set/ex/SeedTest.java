@@ -0,0 +1,75 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SeedTest {
+
+    /**
+     * A dealer and a computer player of a game, after the dealer dealt the cards.
+     */
+    private static class Game {
+        final Table table;
+        final Player player;
+
+        Game(String seed) {
+            Properties properties = new Properties();
+            properties.put("FeatureSize", "3");
+            properties.put("FeatureCount", "4");
+            properties.put("HumanPlayers", "0");
+            properties.put("ComputerPlayers", "1");
+            properties.put("TableDelaySeconds", "0");
+            properties.put("RandomSeed", seed);
+            TableTest.MockLogger logger = new TableTest.MockLogger();
+            Config config = new Config(logger, properties);
+            Env env = new Env(logger, config, new TableTest.MockUserInterface(), new UtilImpl(config));
+            table = new Table(env);
+            Player[] players = new Player[1];
+            Dealer dealer = new Dealer(env, table, players);
+            players[0] = player = new Player(env, dealer, table, 0, false);
+            dealer.placeCardsOnTable();
+        }
+
+        /**
+         * @return - the slots the player's AI chooses to press on the dealt table.
+         */
+        List<Integer> presses() {
+            List<Integer> slots = new ArrayList<>();
+            for (int i = 0; i < 50; i++)
+                slots.add(player.chooseKeyPress());
+            return slots;
+        }
+    }
+
+    @Test
+    void sameSeed_SameDealAndPresses() {
+
+        Game first = new Game("42");
+        Game second = new Game("42");
+
+        assertArrayEquals(first.table.slotToCard, second.table.slotToCard);
+        assertEquals(first.presses(), second.presses());
+    }
+
+    @Test
+    void differentSeed_DifferentDealAndPresses() {
+
+        Game first = new Game("42");
+        Game second = new Game("43");
+
+        assertFalse(Arrays.equals(first.table.slotToCard, second.table.slotToCard));
+        assertNotEquals(first.presses(), second.presses());
+    }
+}
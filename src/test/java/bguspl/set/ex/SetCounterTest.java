@@ -0,0 +1,94 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.Util;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetCounterTest {
+
+    SetCounter counter;
+    private Util util;
+    private Config config;
+
+    @BeforeEach
+    void setUp() {
+
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        properties.put("TableDelaySeconds", "0");
+        TableTest.MockLogger logger = new TableTest.MockLogger();
+        config = new Config(logger, properties);
+        util = new UtilImpl(config);
+
+        Env env = new Env(logger, config, new TableTest.MockUserInterface(), util);
+        counter = new SetCounter(env);
+    }
+
+    @Test
+    void count_WholeDeck() {
+
+        for (int card = 0; card < config.deckSize; card++)
+            counter.add(card);
+        assertEquals(1080, counter.count());
+        assertEquals(config.deckSize, counter.size());
+    }
+
+    @Test
+    void addAll_MatchesAdd() {
+
+        int[] cards = new int[config.deckSize / 2];
+        for (int i = 0; i < cards.length; i++)
+            cards[i] = i * 2;
+        counter.addAll(cards);
+        long expected = counter.count();
+
+        counter.clear();
+        for (int card : cards)
+            counter.add(card);
+        assertEquals(expected, counter.count());
+    }
+
+    @Test
+    void count_MatchesFindSetsWhileRemoving() {
+
+        List<Integer> cards = new ArrayList<>();
+        for (int card = 0; card < config.deckSize; card++) {
+            counter.add(card);
+            cards.add(card);
+        }
+
+        // remove every 7th card and compare with a full search every time
+        for (int card = 0; card < config.deckSize; card += 7) {
+            counter.remove(card);
+            cards.remove(Integer.valueOf(card));
+            assertFalse(counter.contains(card));
+            assertEquals(util.findSets(cards, Integer.MAX_VALUE).size(), counter.count());
+        }
+    }
+
+    @Test
+    void clear_EmptiesTheGroup() {
+
+        counter.add(0);
+        counter.add(1);
+        counter.add(2);
+        assertEquals(1, counter.count());
+        assertTrue(counter.contains(1));
+
+        counter.clear();
+        assertEquals(0, counter.count());
+        assertFalse(counter.contains(1));
+    }
+}
@@ -0,0 +1,117 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.Util;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StrategiesTest {
+
+    private Env env;
+    private Util util;
+    private Table table;
+
+    @BeforeEach
+    void setUp() {
+
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "4");
+        properties.put("ComputerStrategies", "SetFinder Normal 1 0.1, ClaimSpammer, Nonsense");
+        TableTest.MockLogger logger = new TableTest.MockLogger();
+        Config config = new Config(logger, properties);
+        util = new UtilImpl(config);
+        env = new Env(logger, config, new TableTest.MockUserInterface(), util);
+
+        // the first cards of the deck, which have sets in them
+        Integer[] slotToCard = new Integer[config.tableSize];
+        Integer[] cardToSlot = new Integer[config.deckSize];
+        for (int slot = 0; slot < slotToCard.length; slot++) {
+            slotToCard[slot] = slot;
+            cardToSlot[slot] = slot;
+        }
+        table = new Table(env, slotToCard, cardToSlot);
+    }
+
+    /**
+     * Presses the slots the strategy chooses (a press on a marked card unmarks it) until it has nothing to press.
+     */
+    private List<Integer> play(Strategy strategy, List<Integer> marked) {
+        for (int presses = 0; presses < 100; presses++) {
+            int slot = strategy.nextSlot(table, marked);
+            if (slot == -1)
+                return marked;
+            Integer card = table.slotToCard[slot];
+            if (!marked.remove(card))
+                marked.add(card);
+        }
+        throw new AssertionError("the strategy did not stop pressing");
+    }
+
+    private int[] toArray(List<Integer> cards) {
+        return cards.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void create_ReadsTheStrategyOfEveryComputerPlayer() {
+
+        assertTrue(Strategies.create(env, 0, new Random(0)) instanceof SetFinderStrategy);
+        assertTrue(Strategies.create(env, 1, new Random(0)) instanceof ClaimSpammerStrategy);
+        // not valid, and missing
+        assertTrue(Strategies.create(env, 2, new Random(0)) instanceof RandomStrategy);
+        assertTrue(Strategies.create(env, 3, new Random(0)) instanceof RandomStrategy);
+    }
+
+    @Test
+    void setFinder_ClaimsALegalSet() {
+
+        Strategy strategy = new SetFinderStrategy(util,
+                new ReactionTime(ReactionTime.Distribution.CONSTANT, 500, 0), new Random(0));
+        // a token on a card that is not part of the set is removed
+        List<Integer> marked = new ArrayList<>();
+        marked.add(11);
+
+        strategy.nextSlot(table, marked);
+        assertEquals(500, strategy.delayMillis());
+        play(strategy, marked);
+        assertEquals(env.config.featureSize, marked.size());
+        assertTrue(util.testSet(toArray(marked)));
+    }
+
+    @Test
+    void claimSpammer_NeverClaimsALegalSet() {
+
+        Strategy strategy = new ClaimSpammerStrategy(util, env.config.featureSize, new Random(0));
+        for (int i = 0; i < 100; i++) {
+            List<Integer> marked = play(strategy, new ArrayList<>());
+            assertEquals(env.config.featureSize, marked.size());
+            assertFalse(util.testSet(toArray(marked)));
+        }
+    }
+
+    @Test
+    void reactionTime_IsNeverNegative() {
+
+        ReactionTime reactionTime = ReactionTime.parse(new String[]{"Normal", "0.1", "1"}, Strategies.DEFAULT_REACTION_TIME);
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++)
+            assertTrue(reactionTime.sample(random) >= 0);
+
+        ReactionTime constant = ReactionTime.parse(new String[]{"Constant", "2"}, Strategies.DEFAULT_REACTION_TIME);
+        assertEquals(2000, constant.sample(random));
+    }
+}
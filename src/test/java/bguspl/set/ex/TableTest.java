@@ -2,6 +2,7 @@ package bguspl.set.ex;
 
 import bguspl.set.Config;
 import bguspl.set.Env;
+import bguspl.set.SetIndex;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,8 +11,12 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableTest {
 
@@ -95,6 +100,38 @@ class TableTest {
         placeSomeCardsAndAssert();
     }
 
+    @Test
+    void removeToken_OnlyPlacedTokens() {
+        fillSomeSlots();
+        table.placeToken(0, 1);
+        table.placeToken(1, 1);
+
+        assertTrue(table.removeToken(0, 1));
+        assertFalse(table.removeToken(0, 1));
+        assertFalse(table.removeToken(1, 2));
+        assertArrayEquals(new int[]{1}, table.removeTokens(1));
+        assertArrayEquals(new int[0], table.removeTokens(1));
+    }
+
+    @Test
+    void tokens_PlayerAndSlotMasksAgree() {
+        fillSomeSlots();
+        table.placeToken(0, 1);
+        table.placeToken(0, 2);
+        table.placeToken(1, 2);
+
+        assertEquals(0b110L, table.tokens(0));
+        assertEquals(2, table.countTokens(0));
+        assertArrayEquals(new int[]{3, 5}, table.tokenCards(0));
+        assertTrue(table.hasToken(1, 2));
+
+        // removing the card removes the tokens of every player on it
+        table.removeCard(2);
+        assertEquals(0b10L, table.tokens(0));
+        assertFalse(table.hasToken(1, 2));
+        assertEquals(0, table.countTokens(1));
+    }
+
     static class MockUserInterface implements UserInterface {
         @Override
         public void dispose() {}
@@ -123,6 +160,11 @@ class TableTest {
     };
 
     static class MockUtil implements Util {
+        @Override
+        public int feature(int card, int feature) {
+            return 0;
+        }
+
         @Override
         public int[] cardToFeatures(int card) {
             return new int[0];
@@ -138,11 +180,36 @@ class TableTest {
             return false;
         }
 
+        @Override
+        public int completeSet(int[] cards) {
+            return -1;
+        }
+
         @Override
         public List<int[]> findSets(List<Integer> deck, int count) {
             return null;
         }
 
+        @Override
+        public Stream<int[]> streamSets(int[] cards) {
+            return Stream.empty();
+        }
+
+        @Override
+        public int[] findSetsParallel(int[] cards, int count) {
+            return new int[0];
+        }
+
+        @Override
+        public long countSets(int[] cards, long count) {
+            return 0;
+        }
+
+        @Override
+        public SetIndex setIndex() {
+            return null;
+        }
+
         @Override
         public void spin() {}
     }
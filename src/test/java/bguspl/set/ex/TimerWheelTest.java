@@ -0,0 +1,59 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    TimerWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        // a small wheel, so the longer timers take several turns
+        wheel = new TimerWheel("test-timers", 1, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @Test
+    void schedule_RunsOnceByDeadline() throws InterruptedException {
+
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        long start = System.nanoTime();
+        wheel.schedule(() -> { order.add(30); done.countDown(); }, TimeUnit.MILLISECONDS.toNanos(30));
+        wheel.schedule(() -> { order.add(0); done.countDown(); }, 0);
+        wheel.schedule(() -> { order.add(15); done.countDown(); }, TimeUnit.MILLISECONDS.toNanos(15));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+        Thread.sleep(20);
+        assertEquals(3, order.size());
+        assertEquals(0, (int) order.get(0));
+        assertEquals(15, (int) order.get(1));
+        assertEquals(30, (int) order.get(2));
+    }
+
+    @Test
+    void cancel_TheTaskNeverRuns() throws InterruptedException {
+
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        // far enough ahead that the timer cannot expire before it is cancelled, even on a slow machine
+        TimerWheel.Timeout timeout = wheel.schedule(cancelled::countDown, TimeUnit.SECONDS.toNanos(1));
+        // runs after the wheel went past the cancelled timer's deadline
+        wheel.schedule(done::countDown, TimeUnit.MILLISECONDS.toNanos(1100));
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, cancelled.getCount());
+    }
+}